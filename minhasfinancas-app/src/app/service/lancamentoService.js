@@ -102,7 +102,32 @@ export default class LancamentoService extends ApiService {
 		return this.get(params);
 	}
 
+	consultarPagina(lancamentoFiltro, cursor, tamanho = 50) {
+		let params = `/pagina?ano=${lancamentoFiltro.ano}&usuario=${lancamentoFiltro.usuario}&tamanho=${tamanho}`;
+
+		if (lancamentoFiltro.mes) {
+			params = `${params}&mes=${lancamentoFiltro.mes}`;
+		}
+
+		if (lancamentoFiltro.descricao) {
+			params = `${params}&descricao=${lancamentoFiltro.descricao}`;
+		}
+
+		// Cursor opaco devolvido pela página anterior
+		if (cursor) {
+			params = `${params}&cursor=${cursor}`;
+		}
+
+		return this.get(params);
+	}
+
 	deletar(id) {
 		return this.delete(`/${id}`);
 	}
+
+	// Operações { chave, operacao, id, lancamento, status } enviadas em uma única requisição;
+	// reenviar as mesmas chaves devolve os resultados já gravados
+	executarLote(operacoes) {
+		return this.post("/batch", operacoes);
+	}
 }
@@ -22,6 +22,7 @@ class ConsultaLancamentos extends React.Component {
 		showConfirmDialog: false,
 		lancamentoDeletar: "",
 		lancamentos: [],
+		proximoCursor: null,
 	};
 
 	constructor() {
@@ -35,31 +36,50 @@ class ConsultaLancamentos extends React.Component {
 			return false;
 		}
 
-		const usuarioLogado = LocalStorageService.obterItem("_usuario_logado");
-
-		const lancamentoFiltro = {
-			ano: this.state.ano,
-			mes: this.state.mes,
-			tipo: this.state.tipo,
-			descricao: this.state.descricao,
-			usuario: usuarioLogado.id,
-		};
-
 		this.service
-			.consultar(lancamentoFiltro)
+			.consultarPagina(this.obterFiltro())
 			.then((response) => {
-				const lista = response.data;
+				const lista = response.data.itens;
 
 				if (lista.length < 1) {
 					messages.mensagemAlert("Nenhum resultado encontrado.");
 				}
-				this.setState({ lancamentos: lista });
+				this.setState({
+					lancamentos: lista,
+					proximoCursor: response.data.proximoCursor,
+				});
 			})
 			.catch((error) => {
 				console.log(error);
 			});
 	};
 
+	carregarMais = () => {
+		this.service
+			.consultarPagina(this.obterFiltro(), this.state.proximoCursor)
+			.then((response) => {
+				this.setState({
+					lancamentos: this.state.lancamentos.concat(response.data.itens),
+					proximoCursor: response.data.proximoCursor,
+				});
+			})
+			.catch((error) => {
+				console.log(error);
+			});
+	};
+
+	obterFiltro = () => {
+		const usuarioLogado = LocalStorageService.obterItem("_usuario_logado");
+
+		return {
+			ano: this.state.ano,
+			mes: this.state.mes,
+			tipo: this.state.tipo,
+			descricao: this.state.descricao,
+			usuario: usuarioLogado.id,
+		};
+	};
+
 	editar = (id) => {
 		this.props.history.push(`/cadastro-lancamentos/${id}`);
 	};
@@ -195,6 +215,15 @@ class ConsultaLancamentos extends React.Component {
 								deleteAction={this.abrirConfirmacao}
 								alterarStatus={this.alterarStatus}
 							/>
+							{this.state.proximoCursor && (
+								<button
+									onClick={this.carregarMais}
+									type="button"
+									className="btn btn-primary"
+								>
+									<i className="pi pi-angle-double-down"></i> Carregar mais
+								</button>
+							)}
 						</div>
 					</div>
 				</div>
@@ -0,0 +1,125 @@
+package com.groupsoftware.minhasfinancas;
+
+import com.groupsoftware.minhasfinancas.model.entity.Usuario;
+import com.groupsoftware.minhasfinancas.service.JwtService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Clientes HTTP concorrentes contra GET /api/lancamentos, com o Tomcat no pool de threads padrão (200 threads)
+ * ou em threads virtuais. O modo virtual exige JDK 21 ou superior na execução:
+ *   mvn -P benchmark verify -Djmh.incluir=CargaConcorrenteBenchmark -Djmh.java=<jdk 21>/bin/java
+ * Os clientes rodam na mesma JVM da aplicação; o resultado serve para comparar os modos, não como capacidade absoluta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 20)
+@Threads(5000)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx4g", "-Xss512k", "-Dhttp.maxConnections=5000"})
+public class CargaConcorrenteBenchmark {
+
+    private static final int USUARIOS = 100;
+    private static final int LANCAMENTOS_POR_USUARIO = 1000;
+
+    @Param({"plataforma", "virtual"})
+    String modo;
+
+    private ConfigurableApplicationContext contexto;
+    private String[] urls;
+    private String[] tokens;
+    private final AtomicLong proximoCliente = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(MinhasfinancasApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "logging.level.root=WARN")
+                // Argumento de linha de comando: tem precedência sobre o application.properties
+                .run("--servidor.threads-virtuais=" + "virtual".equals(modo));
+        popular(contexto.getBean(JdbcTemplate.class));
+
+        int porta = ((WebServerApplicationContext) contexto).getWebServer().getPort();
+        JwtService jwtService = contexto.getBean(JwtService.class);
+        urls = new String[USUARIOS];
+        tokens = new String[USUARIOS];
+        for (int i = 0; i < USUARIOS; i++) {
+            long id = i + 1;
+            urls[i] = "http://localhost:" + porta + "/api/lancamentos?usuario=" + id + "&ano=2020&mes=6";
+            tokens[i] = jwtService.gerarToken(Usuario.builder().id(id).nome("usuario " + id).email("usuario" + id + "@email.com").build());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    // Cada cliente consulta sempre os lançamentos do mesmo usuário
+    @State(Scope.Thread)
+    public static class Cliente {
+        String url;
+        String token;
+
+        @Setup(Level.Trial)
+        public void escolherUsuario(CargaConcorrenteBenchmark benchmark) {
+            int indice = (int) (benchmark.proximoCliente.getAndIncrement() % USUARIOS);
+            url = benchmark.urls[indice];
+            token = benchmark.tokens[indice];
+        }
+    }
+
+    @Benchmark
+    public int buscar(Cliente cliente) throws IOException {
+        HttpURLConnection conexao = (HttpURLConnection) new URL(cliente.url).openConnection();
+        conexao.setRequestProperty("Authorization", "Bearer " + cliente.token);
+        int status = conexao.getResponseCode();
+        // O corpo é lido até o fim para que a conexão volte ao keep-alive
+        try (InputStream corpo = status < 400 ? conexao.getInputStream() : conexao.getErrorStream()) {
+            byte[] buffer = new byte[8192];
+            while (corpo != null && corpo.read(buffer) != -1) {
+                // descarta
+            }
+        }
+        return status;
+    }
+
+    private void popular(JdbcTemplate jdbcTemplate) {
+        List<Object[]> usuarios = new ArrayList<>(USUARIOS);
+        for (long id = 1; id <= USUARIOS; id++) {
+            usuarios.add(new Object[]{id, "usuario " + id, "usuario" + id + "@email.com", "senha"});
+        }
+        jdbcTemplate.batchUpdate("insert into financas.usuario (id, nome, email, senha) values (?, ?, ?, ?)", usuarios);
+
+        Random random = new Random(42);
+        Date dataCadastro = Date.valueOf(LocalDate.of(2020, 1, 1));
+        List<Object[]> lancamentos = new ArrayList<>();
+        long id = 1;
+        for (long usuario = 1; usuario <= USUARIOS; usuario++) {
+            for (int i = 0; i < LANCAMENTOS_POR_USUARIO; i++, id++) {
+                lancamentos.add(new Object[]{id, "lançamento " + id, i % 12 + 1, 2020 - i / 12 % 5, usuario,
+                        BigDecimal.valueOf(random.nextInt(100000), 2), dataCadastro, random.nextBoolean() ? "RECEITA" : "DESPESA", "PENDENTE"});
+            }
+        }
+        jdbcTemplate.batchUpdate("insert into financas.lancamento "
+                + "(id, descricao, mes, ano, id_usuario, valor, data_cadastro, tipo, status) "
+                + "values (?, ?, ?, ?, ?, ?, ?, ?, ?)", lancamentos);
+    }
+}
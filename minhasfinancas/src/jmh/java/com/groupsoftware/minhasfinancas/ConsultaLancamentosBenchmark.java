@@ -0,0 +1,119 @@
+package com.groupsoftware.minhasfinancas;
+
+import com.groupsoftware.minhasfinancas.model.entity.Lancamento;
+import com.groupsoftware.minhasfinancas.model.entity.Usuario;
+import com.groupsoftware.minhasfinancas.model.projection.LancamentoResumo;
+import com.groupsoftware.minhasfinancas.service.LancamentoService;
+import com.groupsoftware.minhasfinancas.service.SaldoUsuarioService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Consulta e saldo de ponta a ponta (serviço, JPA e H2 em memória) com a aplicação inteira no processo.
+ * Usa o perfil test: não depende de nenhum banco externo. Executar com:
+ *   mvn -P benchmark verify -Djmh.incluir=ConsultaLancamentosBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ConsultaLancamentosBenchmark {
+
+    private static final int USUARIOS = 100;
+    private static final int ANOS = 5;
+    private static final int LOTE = 10000;
+
+    @Param({"10000", "100000", "1000000"})
+    int linhas;
+
+    private ConfigurableApplicationContext contexto;
+    private LancamentoService lancamentoService;
+    private Lancamento filtro;
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        contexto = new SpringApplicationBuilder(MinhasfinancasApplication.class)
+                .profiles("test")
+                .properties("server.port=0", "logging.level.root=WARN")
+                .run();
+
+        popular(contexto.getBean(JdbcTemplate.class));
+        // Os lançamentos foram inseridos direto no banco: o saldo por usuário é montado a partir deles
+        contexto.getBean(SaldoUsuarioService.class).reconciliar();
+
+        lancamentoService = contexto.getBean(LancamentoService.class);
+        filtro = new Lancamento();
+        filtro.setUsuario(Usuario.builder().id(1L).build());
+        filtro.setAno(2020);
+        filtro.setMes(6);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        contexto.close();
+    }
+
+    @Benchmark
+    public List<Lancamento> buscar() {
+        return lancamentoService.buscar(filtro);
+    }
+
+    @Benchmark
+    public List<LancamentoResumo> buscarResumos() {
+        return lancamentoService.buscarResumos(filtro);
+    }
+
+    @Benchmark
+    public BigDecimal obterSaldoPorUsuario() {
+        return lancamentoService.obterSaldoPorUsuario(1L);
+    }
+
+    // Distribui as linhas igualmente entre os usuários, os últimos anos e os doze meses
+    private void popular(JdbcTemplate jdbcTemplate) {
+        List<Object[]> usuarios = new ArrayList<>(USUARIOS);
+        for (long id = 1; id <= USUARIOS; id++) {
+            usuarios.add(new Object[]{id, "usuario " + id, "usuario" + id + "@email.com", "senha"});
+        }
+        jdbcTemplate.batchUpdate("insert into financas.usuario (id, nome, email, senha) values (?, ?, ?, ?)", usuarios);
+
+        Random random = new Random(42);
+        Date dataCadastro = Date.valueOf(LocalDate.of(2020, 1, 1));
+        List<Object[]> lote = new ArrayList<>(LOTE);
+        for (long id = 1; id <= linhas; id++) {
+            lote.add(new Object[]{
+                    id,
+                    "lançamento " + id,
+                    (int) (id % 12) + 1,
+                    2020 - (int) (id / 12 % ANOS),
+                    id % USUARIOS + 1,
+                    BigDecimal.valueOf(random.nextInt(100000), 2),
+                    dataCadastro,
+                    random.nextBoolean() ? "RECEITA" : "DESPESA",
+                    random.nextInt(3) == 0 ? "PENDENTE" : "EFETIVADO"
+            });
+            if (lote.size() == LOTE) {
+                inserir(jdbcTemplate, lote);
+            }
+        }
+        inserir(jdbcTemplate, lote);
+    }
+
+    private static void inserir(JdbcTemplate jdbcTemplate, List<Object[]> lote) {
+        jdbcTemplate.batchUpdate("insert into financas.lancamento "
+                + "(id, descricao, mes, ano, id_usuario, valor, data_cadastro, tipo, status) "
+                + "values (?, ?, ?, ?, ?, ?, ?, ?, ?)", lote);
+        lote.clear();
+    }
+}
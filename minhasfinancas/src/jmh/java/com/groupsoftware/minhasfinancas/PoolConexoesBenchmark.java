@@ -0,0 +1,126 @@
+package com.groupsoftware.minhasfinancas;
+
+import com.groupsoftware.minhasfinancas.model.entity.Lancamento;
+import com.groupsoftware.minhasfinancas.model.entity.Usuario;
+import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+import com.groupsoftware.minhasfinancas.model.projection.LancamentoResumo;
+import com.groupsoftware.minhasfinancas.model.repository.UsuarioRepository;
+import com.groupsoftware.minhasfinancas.service.LancamentoService;
+import com.groupsoftware.minhasfinancas.service.dto.ResultadoImportacao;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Carga concorrente contra o PostgreSQL configurado, comparando os padrões do pool e do driver com o perfil prod.
+ * Mais threads que conexões no pool, para que a espera por conexão também apareça no resultado.
+ * Requer o banco em localhost:5432/minhasfinancas (as tabelas são criadas se não existirem). Executar com:
+ *   mvn -P benchmark verify -Djmh.incluir=PoolConexoesBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 10)
+@Measurement(iterations = 5, time = 10)
+@Threads(32)
+@Fork(1)
+public class PoolConexoesBenchmark {
+
+    private static final int TAMANHO_IMPORTACAO = 500;
+
+    @Param({"padrao", "prod"})
+    String perfil;
+
+    private ConfigurableApplicationContext contexto;
+    private LancamentoService lancamentoService;
+    private UsuarioRepository usuarioRepository;
+    private JdbcTemplate jdbcTemplate;
+    private final List<Long> usuarios = new CopyOnWriteArrayList<>();
+
+    @Setup(Level.Trial)
+    public void iniciar() {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(MinhasfinancasApplication.class)
+                .properties("server.port=0", "logging.level.root=WARN",
+                        "spring.jpa.hibernate.ddl-auto=update",
+                        "spring.jpa.properties.hibernate.hbm2ddl.create_namespaces=true");
+        if ("prod".equals(perfil)) {
+            builder.profiles("prod");
+        }
+        contexto = builder.run();
+        lancamentoService = contexto.getBean(LancamentoService.class);
+        usuarioRepository = contexto.getBean(UsuarioRepository.class);
+        jdbcTemplate = contexto.getBean(JdbcTemplate.class);
+    }
+
+    // Os dados das threads são removidos aqui, e não no estado de cada thread: o JMH não ordena os encerramentos
+    // entre threads, e uma thread poderia fechar o contexto enquanto outra ainda apagava os seus lançamentos
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        for (Long id : usuarios) {
+            jdbcTemplate.update("delete from financas.lancamento where id_usuario = ?", id);
+            jdbcTemplate.update("delete from financas.lancamento_resumo_mensal where id_usuario = ?", id);
+            jdbcTemplate.update("delete from financas.saldo_usuario where id_usuario = ?", id);
+            jdbcTemplate.update("delete from financas.usuario where id = ?", id);
+        }
+        contexto.close();
+    }
+
+    // Cada thread grava com o próprio usuário: as linhas de saldo e resumo mensal não são disputadas entre threads
+    @State(Scope.Thread)
+    public static class UsuarioDaThread {
+        Usuario usuario;
+        Lancamento filtro;
+
+        @Setup(Level.Trial)
+        public void criar(PoolConexoesBenchmark benchmark) {
+            String email = "benchmark-" + UUID.randomUUID() + "@email.com";
+            usuario = benchmark.usuarioRepository.save(Usuario.builder().nome("benchmark").email(email).senha("senha").build());
+            benchmark.usuarios.add(usuario.getId());
+            filtro = new Lancamento();
+            filtro.setUsuario(usuario);
+            filtro.setAno(2020);
+            filtro.setMes(6);
+        }
+    }
+
+    @Benchmark
+    public Lancamento salvar(UsuarioDaThread thread) {
+        return lancamentoService.salvar(novoLancamento(thread.usuario));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(TAMANHO_IMPORTACAO)
+    public ResultadoImportacao importar(UsuarioDaThread thread) {
+        List<Lancamento> lancamentos = new ArrayList<>(TAMANHO_IMPORTACAO);
+        for (int i = 0; i < TAMANHO_IMPORTACAO; i++) {
+            lancamentos.add(novoLancamento(thread.usuario));
+        }
+        return lancamentoService.importar(lancamentos);
+    }
+
+    @Benchmark
+    public List<LancamentoResumo> buscarResumos(UsuarioDaThread thread) {
+        return lancamentoService.buscarResumos(thread.filtro);
+    }
+
+    private static Lancamento novoLancamento(Usuario usuario) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return Lancamento.builder()
+                .descricao("lançamento de carga")
+                .ano(2020)
+                .mes(random.nextInt(12) + 1)
+                .valor(BigDecimal.valueOf(random.nextInt(100000) + 1, 2)) // valor zero é recusado pela validação
+                .tipo(random.nextBoolean() ? TipoLancamento.RECEITA : TipoLancamento.DESPESA)
+                .usuario(usuario)
+                .build();
+    }
+}
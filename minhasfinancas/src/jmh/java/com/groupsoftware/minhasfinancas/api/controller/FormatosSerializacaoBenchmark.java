@@ -0,0 +1,72 @@
+package com.groupsoftware.minhasfinancas.api.controller;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groupsoftware.minhasfinancas.config.ModuloValoresEmCentavos;
+import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
+import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+import com.groupsoftware.minhasfinancas.model.projection.LancamentoResumo;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Custo de gravar e ler a listagem de lançamentos em JSON, CBOR e Smile; o tamanho do corpo sai no log de cada execução
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatosSerializacaoBenchmark {
+
+    private static final TypeReference<List<LancamentoResumo>> LISTA = new TypeReference<List<LancamentoResumo>>() {
+    };
+
+    @Param({"json", "cbor", "smile"})
+    String formato;
+
+    @Param({"100", "5000"})
+    int quantidade;
+
+    private ObjectMapper objectMapper;
+    private List<LancamentoResumo> lancamentos;
+    private byte[] corpo;
+
+    @Setup
+    public void iniciar() throws Exception {
+        objectMapper = criarObjectMapper(formato);
+        lancamentos = new ArrayList<>(quantidade);
+        for (long id = 1; id <= quantidade; id++) {
+            lancamentos.add(new LancamentoResumo(id, "lançamento " + id, (int) (id % 12) + 1, BigDecimal.valueOf(id * 1037, 2),
+                    id % 2 == 0 ? TipoLancamento.RECEITA : TipoLancamento.DESPESA, StatusLancamento.PENDENTE));
+        }
+        corpo = objectMapper.writeValueAsBytes(lancamentos);
+        System.out.println(formato + ", " + quantidade + " lançamentos: " + corpo.length + " bytes");
+    }
+
+    // Os mesmos ObjectMapper dos conversores do Spring MVC; nos binários, valores em centavos
+    static ObjectMapper criarObjectMapper(String formato) {
+        switch (formato) {
+            case "cbor":
+                return Jackson2ObjectMapperBuilder.cbor().modulesToInstall(new ModuloValoresEmCentavos()).build();
+            case "smile":
+                return Jackson2ObjectMapperBuilder.smile().modulesToInstall(new ModuloValoresEmCentavos()).build();
+            default:
+                return Jackson2ObjectMapperBuilder.json().build();
+        }
+    }
+
+    @Benchmark
+    public byte[] serializar() throws Exception {
+        return objectMapper.writeValueAsBytes(lancamentos);
+    }
+
+    @Benchmark
+    public List<LancamentoResumo> desserializar() throws Exception {
+        return objectMapper.readValue(corpo, LISTA);
+    }
+}
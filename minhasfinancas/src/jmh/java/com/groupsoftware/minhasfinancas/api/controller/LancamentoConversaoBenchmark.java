@@ -0,0 +1,129 @@
+package com.groupsoftware.minhasfinancas.api.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groupsoftware.minhasfinancas.api.dto.LancamentoDTO;
+import com.groupsoftware.minhasfinancas.model.entity.Lancamento;
+import com.groupsoftware.minhasfinancas.model.entity.Usuario;
+import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
+import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+import com.groupsoftware.minhasfinancas.service.UsuarioService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LancamentoConversaoBenchmark {
+
+    private LancamentoController controller;
+    private Lancamento lancamento;
+    private LancamentoDTO dto;
+
+    @Setup
+    public void iniciar() {
+        Usuario usuario = Usuario.builder().id(1L).nome("usuario").email("usuario@email.com").build();
+        // Sem banco: mede só a conversão, não a consulta do usuário
+        UsuarioService usuarioService = new UsuarioService() {
+            @Override
+            public Usuario autenticar(String email, String senha) {
+                return usuario;
+            }
+
+            @Override
+            public CompletableFuture<Usuario> autenticarAssincrono(String email, String senha) {
+                return CompletableFuture.completedFuture(usuario);
+            }
+
+            @Override
+            public Usuario salvarUsuario(Usuario novoUsuario) {
+                return novoUsuario;
+            }
+
+            @Override
+            public void validarEmail(String email) {
+            }
+
+            @Override
+            public Optional<Usuario> obterPorId(Long id) {
+                return Optional.of(usuario);
+            }
+
+            @Override
+            public Usuario obterReferencia(Long id) {
+                return usuario;
+            }
+
+            @Override
+            public List<String> normalizarEmailsCadastrados() {
+                return Collections.emptyList();
+            }
+        };
+        controller = new LancamentoController(null, usuarioService, null, null, null);
+
+        lancamento = criarLancamento(1L, usuario);
+        dto = controller.converter(lancamento);
+    }
+
+    @Benchmark
+    public LancamentoDTO converterParaDTO() {
+        return controller.converter(lancamento);
+    }
+
+    @Benchmark
+    public Lancamento converterParaLancamento() {
+        return controller.converter(dto);
+    }
+
+    static Lancamento criarLancamento(long id, Usuario usuario) {
+        return Lancamento.builder()
+                .id(id)
+                .descricao("lançamento " + id)
+                .mes((int) (id % 12) + 1)
+                .ano(2020)
+                .valor(BigDecimal.valueOf(id * 10, 2))
+                .dataCadastro(LocalDate.of(2020, 1, 1))
+                .tipo(id % 2 == 0 ? TipoLancamento.RECEITA : TipoLancamento.DESPESA)
+                .status(StatusLancamento.PENDENTE)
+                .usuario(usuario)
+                .build();
+    }
+
+    // Serialização das listas devolvidas pela consulta de lançamentos
+    @State(Scope.Benchmark)
+    public static class Serializacao {
+
+        @Param({"10", "100", "1000"})
+        int quantidade;
+
+        ObjectMapper objectMapper;
+        List<Lancamento> lancamentos;
+
+        @Setup
+        public void iniciar() {
+            // Mesma configuração do ObjectMapper criado pelo Spring MVC
+            objectMapper = Jackson2ObjectMapperBuilder.json().build();
+            Usuario usuario = Usuario.builder().id(1L).nome("usuario").email("usuario@email.com").build();
+            lancamentos = new ArrayList<>(quantidade);
+            for (long id = 1; id <= quantidade; id++) {
+                lancamentos.add(criarLancamento(id, usuario));
+            }
+        }
+    }
+
+    @Benchmark
+    public byte[] serializarLancamentos(Serializacao serializacao) throws Exception {
+        return serializacao.objectMapper.writeValueAsBytes(serializacao.lancamentos);
+    }
+}
@@ -0,0 +1,51 @@
+package com.groupsoftware.minhasfinancas.service;
+
+import com.groupsoftware.minhasfinancas.model.entity.Usuario;
+import com.groupsoftware.minhasfinancas.service.dto.TokenVerificado;
+import com.groupsoftware.minhasfinancas.service.impl.JwtServiceImpl;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtServiceBenchmark {
+
+    private JwtServiceImpl jwtService;
+    private Usuario usuario;
+    private String token;
+
+    @Setup
+    public void iniciar() {
+        jwtService = new JwtServiceImpl(new SimpleMeterRegistry(), 10000);
+        ReflectionTestUtils.setField(jwtService, "expiracao", "30");
+        ReflectionTestUtils.setField(jwtService, "chaveAssinatura", "YSBsZWJyZSDDqSBicmFuY2E=");
+
+        usuario = Usuario.builder().id(1L).nome("usuario").email("usuario@email.com").build();
+        token = jwtService.gerarToken(usuario);
+    }
+
+    @Benchmark
+    public String gerarToken() {
+        return jwtService.gerarToken(usuario);
+    }
+
+    @Benchmark
+    public Claims obterClaims() {
+        return jwtService.obterClaims(token);
+    }
+
+    // Caminho usado pelo filtro a cada requisição, com o token já no cache de verificados
+    @Benchmark
+    public Optional<TokenVerificado> verificar() {
+        return jwtService.verificar(token);
+    }
+}
@@ -0,0 +1,62 @@
+package com.groupsoftware.minhasfinancas.service;
+
+import com.groupsoftware.minhasfinancas.exception.RegraNegocioException;
+import com.groupsoftware.minhasfinancas.model.entity.Lancamento;
+import com.groupsoftware.minhasfinancas.model.entity.Usuario;
+import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+import com.groupsoftware.minhasfinancas.service.impl.LancamentoServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LancamentoValidacaoBenchmark {
+
+    private LancamentoServiceImpl service;
+    private Lancamento valido;
+    private Lancamento semValor;
+
+    @Setup
+    public void iniciar() {
+        // A validação não acessa o repositório, o saldo nem o resumo mensal; só conta as falhas no registro de métricas
+        service = new LancamentoServiceImpl(null, null, null, null, null, new SimpleMeterRegistry());
+
+        valido = Lancamento.builder()
+                .descricao("lançamento")
+                .mes(6)
+                .ano(2020)
+                .valor(BigDecimal.TEN)
+                .tipo(TipoLancamento.RECEITA)
+                .usuario(Usuario.builder().id(1L).build())
+                .build();
+        semValor = Lancamento.builder()
+                .descricao("lançamento")
+                .mes(6)
+                .ano(2020)
+                .tipo(TipoLancamento.RECEITA)
+                .usuario(Usuario.builder().id(1L).build())
+                .build();
+    }
+
+    @Benchmark
+    public void validar() {
+        service.validar(valido);
+    }
+
+    @Benchmark
+    public RegraNegocioException validarInvalido() {
+        try {
+            service.validar(semValor);
+            return null;
+        } catch (RegraNegocioException e) {
+            return e;
+        }
+    }
+}
@@ -2,12 +2,14 @@ package com.groupsoftware.minhasfinancas;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 @SpringBootApplication
 @EnableWebMvc
+@EnableScheduling
 public class MinhasfinancasApplication implements WebMvcConfigurer {
 
     // Define de onde poderemos fazer requisições para essa aplicação
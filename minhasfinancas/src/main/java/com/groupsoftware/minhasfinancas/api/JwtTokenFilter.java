@@ -1,10 +1,12 @@
 package com.groupsoftware.minhasfinancas.api;
 
 import com.groupsoftware.minhasfinancas.service.JwtService;
+import com.groupsoftware.minhasfinancas.service.dto.UsuarioAutenticado;
 import com.groupsoftware.minhasfinancas.service.impl.SecurityUserDetailsService;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 
@@ -18,10 +20,13 @@ public class JwtTokenFilter extends OncePerRequestFilter {
 
     private JwtService jwtService;
     private SecurityUserDetailsService userDetailsService;
+    // Quando verdadeiro o principal é montado só com as claims do token assinado, sem acesso ao banco
+    private boolean somenteToken;
 
-    public JwtTokenFilter(JwtService jwtService, SecurityUserDetailsService userDetailsService) {
+    public JwtTokenFilter(JwtService jwtService, SecurityUserDetailsService userDetailsService, boolean somenteToken) {
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.somenteToken = somenteToken;
     }
 
     @Override
@@ -38,24 +43,28 @@ public class JwtTokenFilter extends OncePerRequestFilter {
         if (authorization != null && authorization.startsWith("Bearer")) {
 
             String token = authorization.split(" ")[1]; // Captura o token
-            boolean isTokenValid = jwtService.isTokenValido(token);
 
-            if (isTokenValid) {
-                String login = jwtService.obterLoginUsuario(token);
-                UserDetails usuarioAutenticado = userDetailsService.loadUserByUsername(login);
+            // Assinatura e expiração são verificadas uma única vez por requisição
+            jwtService.verificar(token).ifPresent(tokenVerificado -> {
+                try {
+                    UserDetails usuarioAutenticado = somenteToken
+                            ? new UsuarioAutenticado(tokenVerificado.getIdUsuario(), tokenVerificado.getEmail())
+                            : userDetailsService.obterUsuarioAutenticado(tokenVerificado.getEmail());
 
-                UsernamePasswordAuthenticationToken user =
-                        new UsernamePasswordAuthenticationToken(
-                                usuarioAutenticado, null, usuarioAutenticado.getAuthorities());
+                    UsernamePasswordAuthenticationToken user =
+                            new UsernamePasswordAuthenticationToken(
+                                    usuarioAutenticado, null, usuarioAutenticado.getAuthorities());
 
-                user.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+                    user.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
-                SecurityContextHolder.getContext().setAuthentication(user);
-
-            }
+                    SecurityContextHolder.getContext().setAuthentication(user);
+                } catch (UsernameNotFoundException e) {
+                    // Token válido de um usuário que não existe mais: a requisição segue sem autenticação
+                }
+            });
         }
 
         filterChain.doFilter(request, response);
     }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,174 @@
+package com.groupsoftware.minhasfinancas.api;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+// Distribuição do tamanho, em bytes, das requisições e respostas de cada endpoint
+@Component
+public class TamanhoPayloadFilter extends OncePerRequestFilter {
+
+    private MeterRegistry meterRegistry;
+
+    public TamanhoPayloadFilter(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain)
+            throws ServletException, IOException {
+
+        // A resposta não é guardada em memória: os bytes são apenas contados conforme são escritos
+        RespostaContada respostaContada = new RespostaContada(response);
+        try {
+            filterChain.doFilter(request, respostaContada);
+        } finally {
+            if (request.isAsyncStarted()) {
+                // Resposta assíncrona (ex: DeferredResult): o corpo só é escrito depois, no despacho assíncrono
+                request.getAsyncContext().addListener(new AsyncListener() {
+                    @Override
+                    public void onComplete(AsyncEvent event) {
+                        registrarRequisicao(request, respostaContada);
+                    }
+
+                    @Override
+                    public void onTimeout(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onError(AsyncEvent event) {
+                    }
+
+                    @Override
+                    public void onStartAsync(AsyncEvent event) {
+                    }
+                });
+            } else {
+                registrarRequisicao(request, respostaContada);
+            }
+        }
+    }
+
+    private void registrarRequisicao(HttpServletRequest request, RespostaContada respostaContada) {
+        respostaContada.descarregar();
+
+        // Padrão do mapeamento (ex: /api/lancamentos/{id}) para não criar uma série por URL
+        Object padrao = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = padrao != null ? padrao.toString() : "UNKNOWN";
+        if (request.getContentLengthLong() >= 0) {
+            registrar(uri, request.getMethod(), "requisicao", request.getContentLengthLong());
+        }
+        registrar(uri, request.getMethod(), "resposta", respostaContada.bytes);
+    }
+
+    private void registrar(String uri, String metodo, String direcao, long bytes) {
+        DistributionSummary
+                .builder("financas.http.payload")
+                .baseUnit("bytes")
+                .tag("uri", uri)
+                .tag("method", metodo)
+                .tag("direcao", direcao)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    private static class RespostaContada extends HttpServletResponseWrapper {
+
+        private long bytes;
+        private ServletOutputStream saida;
+        private PrintWriter escritor;
+
+        RespostaContada(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (saida == null) {
+                saida = new SaidaContada(super.getOutputStream());
+            }
+            return saida;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (escritor == null) {
+                escritor = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+            }
+            return escritor;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (escritor != null) {
+                escritor.flush();
+            }
+            super.flushBuffer();
+        }
+
+        void descarregar() {
+            if (escritor != null) {
+                escritor.flush();
+            }
+        }
+
+        private class SaidaContada extends ServletOutputStream {
+
+            private ServletOutputStream saida;
+
+            SaidaContada(ServletOutputStream saida) {
+                this.saida = saida;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+                saida.write(b);
+                bytes++;
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                saida.write(b, off, len);
+                bytes += len;
+            }
+
+            @Override
+            public void flush() throws IOException {
+                saida.flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                saida.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return saida.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                saida.setWriteListener(writeListener);
+            }
+        }
+    }
+}
@@ -1,31 +1,131 @@
 package com.groupsoftware.minhasfinancas.api.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import com.groupsoftware.minhasfinancas.api.dto.AtualizaStatusDTO;
+import com.groupsoftware.minhasfinancas.api.dto.AtualizaStatusLoteDTO;
+import com.groupsoftware.minhasfinancas.api.dto.LancamentoCompactoDTO;
 import com.groupsoftware.minhasfinancas.api.dto.LancamentoDTO;
+import com.groupsoftware.minhasfinancas.api.dto.LancamentosColunaresDTO;
+import com.groupsoftware.minhasfinancas.api.dto.OperacaoLancamentoDTO;
+import com.groupsoftware.minhasfinancas.api.dto.PaginaDTO;
+import com.groupsoftware.minhasfinancas.api.dto.RelatorioDTO;
 import com.groupsoftware.minhasfinancas.exception.RegraNegocioException;
+import com.groupsoftware.minhasfinancas.model.entity.ChaveIdempotencia;
 import com.groupsoftware.minhasfinancas.model.entity.Lancamento;
 import com.groupsoftware.minhasfinancas.model.entity.Usuario;
 import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
 import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+import com.groupsoftware.minhasfinancas.model.projection.LancamentoResumo;
+import com.groupsoftware.minhasfinancas.model.projection.TotalPorPeriodoProjection;
+import com.groupsoftware.minhasfinancas.model.repository.CursorLancamento;
 import com.groupsoftware.minhasfinancas.service.LancamentoService;
 import com.groupsoftware.minhasfinancas.service.UsuarioService;
+import com.groupsoftware.minhasfinancas.service.VersaoDadosUsuarioService;
+import com.groupsoftware.minhasfinancas.service.dto.OperacaoLancamento;
+import com.groupsoftware.minhasfinancas.service.dto.Pagina;
+import com.groupsoftware.minhasfinancas.service.dto.ResultadoImportacao;
+import com.groupsoftware.minhasfinancas.service.dto.UsuarioAutenticado;
+import com.groupsoftware.minhasfinancas.service.impl.CacheResumosLancamentos;
 import lombok.RequiredArgsConstructor;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/lancamentos")
 @RequiredArgsConstructor // É criado na classe um construtor com todos os argumentos obrigatórios (terminam com final)
 public class LancamentoController {
+    private static final int TAMANHO_MAXIMO_PAGINA = 500;
+    private static final String NDJSON = "application/x-ndjson";
+    // Versão 2 da listagem: nomes curtos, por linha ou em colunas
+    static final MediaType LANCAMENTOS_V2 = MediaType.valueOf("application/vnd.minhasfinancas.lancamentos.v2+json");
+    static final MediaType LANCAMENTOS_COLUNAR_V2 = MediaType.valueOf("application/vnd.minhasfinancas.lancamentos-colunar.v2+json");
+    private static final List<MediaType> FORMATOS_LISTAGEM = Arrays.asList(LANCAMENTOS_V2, LANCAMENTOS_COLUNAR_V2, MediaType.APPLICATION_CBOR, RespostasCondicionais.SMILE);
+    private static final int LIMITE_IMPORTACAO = 10000;
+    private static final int LIMITE_LOTE_STATUS = 1000;
+    private static final int LIMITE_LOTE_OPERACOES = 1000;
+    private static final int TAMANHO_MAXIMO_CHAVE = 64;
+    private static final int LIMITE_ANOS_RELATORIO = 20;
+
     private final LancamentoService lancamentoService;
     private final UsuarioService usuarioService;
+    private final VersaoDadosUsuarioService versaoDadosUsuarioService;
+    private final CacheResumosLancamentos cacheResumosLancamentos;
+    private final ObjectMapper objectMapper;
 
+    // O formato segue o cabeçalho Accept: versão 2 (nomes curtos, por linha ou em colunas), CBOR ou Smile só quando pedidos
+    // pelo nome; curingas continuam recebendo a listagem original em JSON
     @GetMapping
-    public ResponseEntity buscar(@RequestParam(value = "descricao", required = false) String descricao, @RequestParam(value = "mes", required = false) Integer mes, @RequestParam(value = "ano", required = false) Integer ano, @RequestParam("usuario") Long idUsuario) {
+    public ResponseEntity buscar(@RequestParam(value = "descricao", required = false) String descricao, @RequestParam(value = "mes", required = false) Integer mes, @RequestParam(value = "ano", required = false) Integer ano, @RequestParam("usuario") Long idUsuario, WebRequest request) {
+        Optional<MediaType> formato = RespostasCondicionais.formato(request, FORMATOS_LISTAGEM);
+        if (formato.filter(LANCAMENTOS_COLUNAR_V2::equals).isPresent()) {
+            return consultar(descricao, mes, ano, idUsuario, request, formato, "-colunar-v2", this::colunar);
+        }
+        if (formato.filter(LANCAMENTOS_V2::equals).isPresent()) {
+            return consultar(descricao, mes, ano, idUsuario, request, formato, "-v2", lancamentos -> lancamentos
+                    .stream()
+                    .map(this::compactar)
+                    .collect(Collectors.toList()));
+        }
+        return consultar(descricao, mes, ano, idUsuario, request, formato, RespostasCondicionais.representacao(formato), lancamentos -> lancamentos);
+    }
+
+    private ResponseEntity consultar(String descricao, Integer mes, Integer ano, Long idUsuario, WebRequest request,
+                                     Optional<MediaType> formato, String representacao, Function<List<LancamentoResumo>, Object> conversao) {
+        // A versão é lida antes da consulta: uma escrita confirmada no meio do caminho apenas invalida a ETag emitida
+        Optional<String> versao = versaoDadosUsuarioService.obterVersao(idUsuario);
+        Optional<String> etag = RespostasCondicionais.etag(versao, representacao);
+        if (RespostasCondicionais.naoModificado(request, etag)) {
+            return null;
+        }
+
+        Lancamento lancamentoFiltro = new Lancamento();
+        lancamentoFiltro.setDescricao(descricao);
+        lancamentoFiltro.setMes(mes);
+        lancamentoFiltro.setAno(ano);
+        lancamentoFiltro.setUsuario(Usuario.builder().id(idUsuario).build());
+
+        // O cache fica à frente do serviço: um acerto não abre transação nem toma conexão do pool
+        try {
+            List<LancamentoResumo> lancamentos = cacheResumosLancamentos.obter(versao, lancamentoFiltro, () -> {
+                // Só numa falta: uma consulta guardada já pressupõe um usuário existente
+                if (!usuarioService.obterPorId(idUsuario).isPresent()) {
+                    throw new RegraNegocioException("Não foi possível realizar a consulta. Usuário não encontrado para o Id informado.");
+                }
+                return lancamentoService.buscarResumos(lancamentoFiltro);
+            });
+            return RespostasCondicionais.ok(etag, formato).body(conversao.apply(lancamentos));
+        } catch (RegraNegocioException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @GetMapping("/pagina")
+    public ResponseEntity buscarPagina(@RequestParam(value = "descricao", required = false) String descricao, @RequestParam(value = "mes", required = false) Integer mes, @RequestParam(value = "ano", required = false) Integer ano, @RequestParam("usuario") Long idUsuario,
+                                       @RequestParam(value = "cursor", required = false) String cursor, @RequestParam(value = "tamanho", defaultValue = "50") Integer tamanho) {
+
+        if (tamanho < 1 || tamanho > TAMANHO_MAXIMO_PAGINA) {
+            return ResponseEntity.badRequest().body("Informe um tamanho de página entre 1 e " + TAMANHO_MAXIMO_PAGINA + ".");
+        }
 
         Lancamento lancamentoFiltro = new Lancamento();
         lancamentoFiltro.setDescricao(descricao);
@@ -38,61 +138,231 @@ public class LancamentoController {
         } else {
             lancamentoFiltro.setUsuario(usuario.get());
         }
-        List<Lancamento> lancamentos = lancamentoService.buscar(lancamentoFiltro);
-        return ResponseEntity.ok(lancamentos);
+        try {
+            CursorLancamento posicao = cursor != null ? CursorLancamento.decodificar(cursor) : null;
+            Pagina<Lancamento> pagina = lancamentoService.buscarPagina(lancamentoFiltro, posicao, tamanho);
+            PaginaDTO<LancamentoDTO> dto = PaginaDTO
+                    .<LancamentoDTO>builder()
+                    .itens(pagina.getItens().stream().map(this::converter).collect(Collectors.toList()))
+                    .proximoCursor(pagina.getProximo() != null ? pagina.getProximo().codificar() : null)
+                    .build();
+            return ResponseEntity.ok(dto);
+        } catch (RegraNegocioException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    // Uma linha JSON por lançamento, escrita direto na resposta à medida que é lida do banco
+    @GetMapping(value = "/exportar", produces = NDJSON)
+    public void exportar(@RequestParam("usuario") Long idUsuario, HttpServletResponse response) throws IOException {
+        response.setContentType(NDJSON);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"lancamentos.ndjson\"");
+
+        try (SequenceWriter linhas = objectMapper
+                .writerFor(LancamentoDTO.class)
+                .withRootValueSeparator("\n")
+                .writeValues(response.getOutputStream())) {
+            lancamentoService.exportar(idUsuario, lancamento -> {
+                try {
+                    linhas.write(converter(lancamento));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    @GetMapping("/relatorio")
+    public ResponseEntity relatorio(@RequestParam("usuario") Long idUsuario,
+                                    @RequestParam("anoInicio") Integer anoInicio, @RequestParam(value = "mesInicio", defaultValue = "1") Integer mesInicio,
+                                    @RequestParam("anoFim") Integer anoFim, @RequestParam(value = "mesFim", defaultValue = "12") Integer mesFim) {
+        if (mesInicio < 1 || mesInicio > 12 || mesFim < 1 || mesFim > 12) {
+            return ResponseEntity.badRequest().body("Informe meses entre 1 e 12.");
+        }
+        if (anoFim < anoInicio || (anoFim.equals(anoInicio) && mesFim < mesInicio)) {
+            return ResponseEntity.badRequest().body("O período final deve ser posterior ao inicial.");
+        }
+        if (anoFim - anoInicio >= LIMITE_ANOS_RELATORIO) {
+            return ResponseEntity.badRequest().body("Informe um período de no máximo " + LIMITE_ANOS_RELATORIO + " anos.");
+        }
+
+        List<TotalPorPeriodoProjection> totais = lancamentoService.obterTotaisPorPeriodo(idUsuario, anoInicio, mesInicio, anoFim, mesFim);
+        int linhas = totais.size();
+        RelatorioDTO relatorio = RelatorioDTO
+                .builder()
+                .ano(new int[linhas])
+                .mes(new int[linhas])
+                .tipo(new String[linhas])
+                .status(new String[linhas])
+                .total(new BigDecimal[linhas])
+                .build();
+        for (int i = 0; i < linhas; i++) {
+            TotalPorPeriodoProjection total = totais.get(i);
+            relatorio.getAno()[i] = total.getAno();
+            relatorio.getMes()[i] = total.getMes();
+            relatorio.getTipo()[i] = total.getTipo().name();
+            relatorio.getStatus()[i] = total.getStatus().name();
+            relatorio.getTotal()[i] = total.getTotal();
+        }
+        return ResponseEntity.ok(relatorio);
     }
 
     @GetMapping("{id}")
-    public ResponseEntity obterLancamento(@PathVariable("id") Long id) {
+    public ResponseEntity obterLancamento(@PathVariable("id") Long id, @AuthenticationPrincipal UsuarioAutenticado usuarioAutenticado, WebRequest request) {
+        Optional<MediaType> formato = RespostasCondicionais.formatoBinario(request);
+        Optional<String> etag = RespostasCondicionais.etag(versaoDadosUsuarioService.obterVersao(usuarioAutenticado.getId()), RespostasCondicionais.representacao(formato));
+        if (RespostasCondicionais.naoModificado(request, etag)) {
+            return null;
+        }
         return lancamentoService
                 .obterPorId(id)
-                .map(lancamento -> new ResponseEntity(converter(lancamento), HttpStatus.OK))
+                .map(lancamento -> {
+                    // Só os lançamentos do próprio usuário acompanham a versão dele
+                    boolean proprio = lancamento.getUsuario().getId().equals(usuarioAutenticado.getId());
+                    return RespostasCondicionais.ok(proprio ? etag : Optional.empty(), formato).body(converter(lancamento));
+                })
                 .orElseGet(() -> new ResponseEntity(HttpStatus.NOT_FOUND));
     }
 
     @PostMapping // Criar recurso ainda inexistente no servidor
-    public ResponseEntity salvar(@RequestBody LancamentoDTO dto) {
+    public ResponseEntity salvar(@RequestBody LancamentoDTO dto, @AuthenticationPrincipal UsuarioAutenticado usuarioAutenticado) {
+        // O dono é o próprio usuário autenticado: dispensa consultar o usuário antes do INSERT
+        if (!usuarioAutenticado.getId().equals(dto.getUsuario())) {
+            return ResponseEntity.badRequest().body("Usuário não encontrado para o ID informado.");
+        }
         try {
             Lancamento entidade = converter(dto);
             lancamentoService.salvar(entidade);
             // return ResponseEntity.ok(entidade) -> Faz o mesmo que o comando abaixo
-            return new ResponseEntity(entidade, HttpStatus.CREATED);
+            return new ResponseEntity(converter(entidade), HttpStatus.CREATED);
         } catch (RegraNegocioException e) {
             return ResponseEntity.badRequest().body(e.getMessage());
         }
     }
 
+    @PostMapping("/importar")
+    public ResponseEntity importar(@RequestParam(value = "usuario", required = false) Long idUsuario, @RequestBody List<LancamentoDTO> dtos,
+                                   @AuthenticationPrincipal UsuarioAutenticado usuarioAutenticado) {
+        // Os lançamentos são sempre do usuário autenticado; o parâmetro só é aceito quando aponta para ele
+        if (idUsuario != null && !usuarioAutenticado.getId().equals(idUsuario)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Não é permitido importar lançamentos para outro usuário.");
+        }
+        if (dtos.size() > LIMITE_IMPORTACAO) {
+            return ResponseEntity.badRequest().body("Importe no máximo " + LIMITE_IMPORTACAO + " lançamentos por vez.");
+        }
+
+        // Uma única referência ao usuário para todo o arquivo, sem consultá-lo
+        Usuario usuario = usuarioService.obterReferencia(usuarioAutenticado.getId());
+        List<Lancamento> lancamentos = dtos
+                .stream()
+                .map(dto -> converter(dto, usuario))
+                .collect(Collectors.toList());
+        ResultadoImportacao resultado = lancamentoService.importar(lancamentos);
+        return ResponseEntity.ok(resultado);
+    }
+
     @PutMapping("{id}") // Atualizar recurso já existente no servidor
-    public ResponseEntity atualizar(@PathVariable("id") Long id, @RequestBody LancamentoDTO dto) {
-        return lancamentoService.obterPorId(id).map(entity -> {
-            try {
-                Lancamento lancamento = converter(dto);
-                lancamento.setId(entity.getId());
-                lancamentoService.atualizar(lancamento);
-                return ResponseEntity.ok(lancamento);
-            } catch (RegraNegocioException e) {
-                return ResponseEntity.badRequest().body(e.getMessage());
-            }
-        }).orElseGet(() -> new ResponseEntity("Lançamento não encontrado na base de dados.", HttpStatus.BAD_REQUEST));
+    public ResponseEntity atualizar(@PathVariable("id") Long id, @RequestBody LancamentoDTO dto, @AuthenticationPrincipal UsuarioAutenticado usuarioAutenticado) {
+        if (!usuarioAutenticado.getId().equals(dto.getUsuario())) {
+            return ResponseEntity.badRequest().body("Lançamento não encontrado na base de dados.");
+        }
+        try {
+            // O serviço confere se o lançamento existe e pertence ao usuário ao aplicar o UPDATE
+            Lancamento lancamento = converter(dto);
+            lancamento.setId(id);
+            lancamentoService.atualizar(lancamento);
+            return ResponseEntity.ok(converter(lancamento));
+        } catch (RegraNegocioException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
     }
 
     @PutMapping("{id}/atualiza-status")
-    public ResponseEntity atualizarStatus(@PathVariable("id") Long id, @RequestBody AtualizaStatusDTO dto) {
+    public ResponseEntity atualizarStatus(@PathVariable("id") Long id, @RequestBody AtualizaStatusDTO dto, @AuthenticationPrincipal UsuarioAutenticado usuarioAutenticado) {
+        // Busca a enumeration referente à String que será passada como parâmetro
+        StatusLancamento statusSelecionado = valorDe(StatusLancamento.class, dto.getStatus());
+        if (statusSelecionado == null) {
+            return ResponseEntity.badRequest().body("Não foi possível atualizar o status do lançamento, envie um status válido.");
+        }
+        try {
+            Lancamento lancamento = lancamentoService.atualizarStatus(id, usuarioAutenticado.getId(), statusSelecionado);
+            return ResponseEntity.ok(converter(lancamento));
+        } catch (RegraNegocioException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
 
-        return lancamentoService.obterPorId(id).map(entity -> {
-            // Busca a enumeration referente à String que será passada como parâmetro
-            StatusLancamento statusSelecionado = StatusLancamento.valueOf(dto.getStatus());
-            /*if (statusSelecionado == null) {
-                return ResponseEntity.badRequest().body("Não foi possível atualizar o status do lançamento, envie um status válido.");
-            }*/
-            try {
-                entity.setStatus(statusSelecionado);
-                lancamentoService.atualizar(entity);
-                return ResponseEntity.ok(entity);
-            } catch (RegraNegocioException e) {
-                return ResponseEntity.badRequest().body(e.getMessage());
+    @PutMapping("/atualiza-status")
+    public ResponseEntity atualizarStatusEmLote(@RequestBody AtualizaStatusLoteDTO dto, @AuthenticationPrincipal UsuarioAutenticado usuarioAutenticado) {
+        boolean semIds = dto.getIds() == null || dto.getIds().isEmpty();
+        if (semIds && dto.getAno() == null) {
+            return ResponseEntity.badRequest().body("Informe os lançamentos ou o ano a atualizar.");
+        }
+        if (!semIds && dto.getIds().size() > LIMITE_LOTE_STATUS) {
+            return ResponseEntity.badRequest().body("Informe no máximo " + LIMITE_LOTE_STATUS + " lançamentos por vez.");
+        }
+        StatusLancamento novoStatus = valorDe(StatusLancamento.class, dto.getStatus());
+        if (novoStatus == null) {
+            return ResponseEntity.badRequest().body("Status inválido. Informe o novo status dos lançamentos.");
+        }
+        // Sem status atual, o filtro não restringe o status; informado, precisa ser um status válido
+        StatusLancamento statusAtual = valorDe(StatusLancamento.class, dto.getStatusAtual());
+        if (dto.getStatusAtual() != null && statusAtual == null) {
+            return ResponseEntity.badRequest().body("Status inválido. Informe um status atual válido.");
+        }
+
+        Lancamento lancamentoFiltro = new Lancamento();
+        lancamentoFiltro.setUsuario(Usuario.builder().id(usuarioAutenticado.getId()).build());
+        lancamentoFiltro.setAno(dto.getAno());
+        lancamentoFiltro.setMes(dto.getMes());
+        lancamentoFiltro.setStatus(statusAtual);
+
+        int atualizados = lancamentoService.atualizarStatusEmLote(lancamentoFiltro, dto.getIds(), novoStatus);
+        return ResponseEntity.ok(atualizados);
+    }
+
+    // Gravações feitas offline reenviadas de uma vez; repetir o lote com as mesmas chaves devolve os mesmos resultados
+    @PostMapping("/batch")
+    public ResponseEntity executarLote(@RequestBody List<OperacaoLancamentoDTO> dtos, @AuthenticationPrincipal UsuarioAutenticado usuarioAutenticado) {
+        if (dtos.size() > LIMITE_LOTE_OPERACOES) {
+            return ResponseEntity.badRequest().body("Envie no máximo " + LIMITE_LOTE_OPERACOES + " operações por vez.");
+        }
+
+        // Um lote malformado é recusado inteiro, antes de executar qualquer operação
+        List<OperacaoLancamento> operacoes = new ArrayList<>(dtos.size());
+        for (OperacaoLancamentoDTO dto : dtos) {
+            if (dto.getChave() == null || dto.getChave().trim().isEmpty() || dto.getChave().length() > TAMANHO_MAXIMO_CHAVE) {
+                return ResponseEntity.badRequest().body("Informe em cada operação uma chave de até " + TAMANHO_MAXIMO_CHAVE + " caracteres.");
             }
-        }).orElseGet(() -> new ResponseEntity("Lançamento não encontrado na base de dados.", HttpStatus.BAD_REQUEST));
+            OperacaoLancamento.Tipo tipo = valorDe(OperacaoLancamento.Tipo.class, dto.getOperacao());
+            if (tipo == null) {
+                return ResponseEntity.badRequest().body("Operação inválida na chave " + dto.getChave() + ".");
+            }
+            operacoes.add(converter(dto, tipo));
+        }
+
+        try {
+            return ResponseEntity.ok(lancamentoService.executarLote(usuarioAutenticado.getId(), operacoes));
+        } catch (DataIntegrityViolationException e) {
+            if (violouChaveIdempotencia(e)) {
+                // Outra requisição gravou as mesmas chaves ao mesmo tempo e este lote foi desfeito: repetido, devolve os resultados dela
+                return ResponseEntity.status(HttpStatus.CONFLICT).body("As operações deste lote já estão sendo executadas. Repita a requisição.");
+            }
+            // Qualquer outra restrição violada recusa o lote inteiro; repeti-lo daria o mesmo erro
+            return ResponseEntity.badRequest().body("O lote viola uma restrição dos dados e nenhuma operação foi executada.");
+        }
+    }
+
+    private static boolean violouChaveIdempotencia(DataIntegrityViolationException e) {
+        for (Throwable causa = e; causa != null; causa = causa.getCause()) {
+            if (causa instanceof ConstraintViolationException) {
+                String restricao = ((ConstraintViolationException) causa).getConstraintName();
+                // O nome vem como o banco o informa, às vezes em maiúsculas ou com o nome do índice
+                return restricao != null && restricao.toLowerCase().contains(ChaveIdempotencia.RESTRICAO_CHAVE);
+            }
+        }
+        return false;
     }
 
     @DeleteMapping("{id}")
@@ -103,7 +373,7 @@ public class LancamentoController {
         }).orElseGet(() -> new ResponseEntity("Lançamento não encontrado na base de dados.", HttpStatus.BAD_REQUEST));
     }
 
-    private LancamentoDTO converter(Lancamento lancamento) {
+    LancamentoDTO converter(Lancamento lancamento) {
         return LancamentoDTO
                 .builder()
                 .id(lancamento.getId())
@@ -111,14 +381,49 @@ public class LancamentoController {
                 .valor(lancamento.getValor())
                 .mes(lancamento.getMes())
                 .ano(lancamento.getAno())
-                .status(lancamento.getStatus().name())
+                .status(lancamento.getStatus() != null ? lancamento.getStatus().name() : null)
                 .tipo(lancamento.getTipo().name())
                 .usuario(lancamento.getUsuario().getId())
                 .build();
     }
 
+    private LancamentoCompactoDTO compactar(LancamentoResumo resumo) {
+        return LancamentoCompactoDTO
+                .builder()
+                .id(resumo.getId())
+                .descricao(resumo.getDescricao())
+                .mes(resumo.getMes())
+                .valor(resumo.getValor())
+                .tipo(resumo.getTipo().name())
+                .status(resumo.getStatus() != null ? resumo.getStatus().name() : null)
+                .build();
+    }
+
+    private LancamentosColunaresDTO colunar(List<LancamentoResumo> resumos) {
+        int linhas = resumos.size();
+        LancamentosColunaresDTO colunas = LancamentosColunaresDTO
+                .builder()
+                .id(new long[linhas])
+                .descricao(new String[linhas])
+                .mes(new int[linhas])
+                .valor(new BigDecimal[linhas])
+                .tipo(new String[linhas])
+                .status(new String[linhas])
+                .build();
+        for (int i = 0; i < linhas; i++) {
+            LancamentoResumo resumo = resumos.get(i);
+            colunas.getId()[i] = resumo.getId();
+            colunas.getDescricao()[i] = resumo.getDescricao();
+            colunas.getMes()[i] = resumo.getMes();
+            colunas.getValor()[i] = resumo.getValor();
+            colunas.getTipo()[i] = resumo.getTipo().name();
+            colunas.getStatus()[i] = resumo.getStatus() != null ? resumo.getStatus().name() : null;
+        }
+        return colunas;
+    }
+
     // Conversão do DTO em Lancamento
-    private Lancamento converter(LancamentoDTO dto) {
+    Lancamento converter(LancamentoDTO dto) {
         Lancamento lancamento = new Lancamento();
         lancamento.setId(dto.getId());
         lancamento.setDescricao(dto.getDescricao());
@@ -126,9 +431,10 @@ public class LancamentoController {
         lancamento.setMes(dto.getMes());
         lancamento.setValor(dto.getValor());
 
-        Usuario usuario = usuarioService.obterPorId(dto.getUsuario()).orElseThrow(() -> new RegraNegocioException("Usuário não encontrado para o ID informado."));
-
-        lancamento.setUsuario(usuario);
+        // Apenas a chave estrangeira é necessária: nenhuma consulta ao usuário é feita
+        if (dto.getUsuario() != null) {
+            lancamento.setUsuario(usuarioService.obterReferencia(dto.getUsuario()));
+        }
         if (dto.getTipo() != null) {
             lancamento.setTipo(TipoLancamento.valueOf(dto.getTipo()));
         }
@@ -138,4 +444,35 @@ public class LancamentoController {
 
         return lancamento;
     }
+
+    // Conversão usada na importação: um tipo desconhecido fica nulo e é relatado pela validação da linha
+    private Lancamento converter(LancamentoDTO dto, Usuario usuario) {
+        Lancamento lancamento = new Lancamento();
+        lancamento.setDescricao(dto.getDescricao());
+        lancamento.setAno(dto.getAno());
+        lancamento.setMes(dto.getMes());
+        lancamento.setValor(dto.getValor());
+        lancamento.setUsuario(usuario);
+        lancamento.setTipo(valorDe(TipoLancamento.class, dto.getTipo()));
+        return lancamento;
+    }
+
+    // Conversão usada no lote: tipo e status desconhecidos ficam nulos e são relatados no resultado da operação
+    private OperacaoLancamento converter(OperacaoLancamentoDTO dto, OperacaoLancamento.Tipo tipo) {
+        Lancamento lancamento = null;
+        if (dto.getLancamento() != null) {
+            LancamentoDTO dados = dto.getLancamento();
+            lancamento = converter(dados, dados.getUsuario() != null ? usuarioService.obterReferencia(dados.getUsuario()) : null);
+            lancamento.setStatus(valorDe(StatusLancamento.class, dados.getStatus()));
+        }
+        return new OperacaoLancamento(dto.getChave(), tipo, dto.getId(), lancamento, valorDe(StatusLancamento.class, dto.getStatus()));
+    }
+
+    private static <E extends Enum<E>> E valorDe(Class<E> tipo, String nome) {
+        return Arrays
+                .stream(tipo.getEnumConstants())
+                .filter(valor -> valor.name().equals(nome))
+                .findFirst()
+                .orElse(null);
+    }
 }
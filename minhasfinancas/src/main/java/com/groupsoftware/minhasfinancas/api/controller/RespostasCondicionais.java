@@ -0,0 +1,88 @@
+package com.groupsoftware.minhasfinancas.api.controller;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/*
+ * GET condicional a partir da versão dos dados do usuário: o If-None-Match é comparado antes de qualquer consulta,
+ * e uma ETag coincidente responde 304 sem acessar o banco nem serializar o corpo.
+ */
+final class RespostasCondicionais {
+
+    // O navegador guarda a resposta, mas sempre revalida antes de usá-la
+    private static final CacheControl REVALIDAR = CacheControl.noCache().cachePrivate();
+
+    static final MediaType SMILE = new MediaType("application", "x-jackson-smile");
+    // Servidos pelos conversores do Jackson sobre os mesmos DTOs do JSON, com valores em centavos
+    static final List<MediaType> FORMATOS_BINARIOS = Arrays.asList(MediaType.APPLICATION_CBOR, SMILE);
+
+    private RespostasCondicionais() {
+    }
+
+    static Optional<String> etag(Optional<String> versao) {
+        return etag(versao, "");
+    }
+
+    /* Fraca: o Tomcat não comprime respostas com ETag forte, e o mesmo conteúdo segue com ou sem gzip.
+    Cada representação do mesmo recurso (formato da listagem) tem a sua. */
+    static Optional<String> etag(Optional<String> versao, String representacao) {
+        return versao.map(numero -> "W/\"" + numero + representacao + "\"");
+    }
+
+    // O primeiro dos formatos reconhecidos citado pelo nome no Accept, na ordem de preferência do cliente.
+    // Curingas como */* e application/*+json não escolhem nenhum: a resposta segue em JSON.
+    static Optional<MediaType> formato(WebRequest request, List<MediaType> reconhecidos) {
+        String[] accept = request.getHeaderValues(HttpHeaders.ACCEPT);
+        if (accept == null) {
+            return Optional.empty();
+        }
+        try {
+            List<MediaType> aceitos = MediaType.parseMediaTypes(Arrays.asList(accept));
+            MediaType.sortByQualityValue(aceitos);
+            for (MediaType aceito : aceitos) {
+                for (MediaType formato : reconhecidos) {
+                    if (aceito.equalsTypeAndSubtype(formato) && aceito.getQualityValue() > 0) {
+                        return Optional.of(formato);
+                    }
+                }
+            }
+        } catch (InvalidMediaTypeException e) {
+            // Accept inválido: segue em JSON
+        }
+        return Optional.empty();
+    }
+
+    static Optional<MediaType> formatoBinario(WebRequest request) {
+        return formato(request, FORMATOS_BINARIOS);
+    }
+
+    // Sufixo da ETag: cada formato tem a sua
+    static String representacao(Optional<MediaType> formato) {
+        return formato.map(tipo -> "-" + tipo.getSubtype()).orElse("");
+    }
+
+    // Verdadeiro quando o 304 já foi preparado: o controller então retorna null
+    static boolean naoModificado(WebRequest request, Optional<String> etag) {
+        return etag.isPresent() && request.checkNotModified(etag.get());
+    }
+
+    static ResponseEntity.BodyBuilder ok(Optional<String> etag) {
+        ResponseEntity.BodyBuilder resposta = ResponseEntity.ok();
+        etag.ifPresent(valor -> resposta.eTag(valor).cacheControl(REVALIDAR));
+        return resposta;
+    }
+
+    static ResponseEntity.BodyBuilder ok(Optional<String> etag, Optional<MediaType> formato) {
+        ResponseEntity.BodyBuilder resposta = ok(etag).varyBy(HttpHeaders.ACCEPT);
+        formato.ifPresent(resposta::contentType);
+        return resposta;
+    }
+}
@@ -1,20 +1,29 @@
 package com.groupsoftware.minhasfinancas.api.controller;
 
+import com.groupsoftware.minhasfinancas.api.dto.SaldoDTO;
 import com.groupsoftware.minhasfinancas.api.dto.TokenDTO;
 import com.groupsoftware.minhasfinancas.api.dto.UsuarioDTO;
 import com.groupsoftware.minhasfinancas.exception.AutenticacaoException;
 import com.groupsoftware.minhasfinancas.exception.RegraNegocioException;
 import com.groupsoftware.minhasfinancas.model.entity.Usuario;
+import com.groupsoftware.minhasfinancas.model.projection.SaldoProjection;
 import com.groupsoftware.minhasfinancas.service.JwtService;
 import com.groupsoftware.minhasfinancas.service.LancamentoService;
 import com.groupsoftware.minhasfinancas.service.UsuarioService;
+import com.groupsoftware.minhasfinancas.service.VersaoDadosUsuarioService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.math.BigDecimal;
 import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController // o retorno dos métodos será o corpo da resposta que está sendo enviada
 @RequestMapping("/api/usuarios")
@@ -23,20 +32,39 @@ public class UsuarioController {
     private final UsuarioService service;
     private final LancamentoService lancamentoService;
     private final JwtService jwtService;
+    private final VersaoDadosUsuarioService versaoDadosUsuarioService;
 
     /*Quando é adicionado um bean gerenciado pelo Spring (RestController) e uma dependência
      no construtor (UsuarioServive) o spring já faz a injeção sem o Autowired.*/
 
+    /*
+     * A verificação da senha (BCrypt) roda no executor de senhas; a thread do Tomcat é liberada até o resultado.
+     * Com o executor saturado, responde 429 para o cliente tentar novamente.
+     */
     @PostMapping("/autenticar")
-    public ResponseEntity<?> autenticar(@RequestBody UsuarioDTO dto) {
+    public DeferredResult<ResponseEntity<?>> autenticar(@RequestBody UsuarioDTO dto) {
+        DeferredResult<ResponseEntity<?>> resultado = new DeferredResult<>();
         try {
-            Usuario usuarioAutenticado = service.autenticar(dto.getEmail(), dto.getSenha());
-            String token = jwtService.gerarToken(usuarioAutenticado);
-            TokenDTO tokenDTO = new TokenDTO(usuarioAutenticado.getNome(), token);
-            return ResponseEntity.ok(tokenDTO);
+            service.autenticarAssincrono(dto.getEmail(), dto.getSenha()).whenComplete((usuarioAutenticado, erro) -> {
+                Throwable causa = erro instanceof CompletionException ? erro.getCause() : erro;
+                if (causa instanceof AutenticacaoException) {
+                    resultado.setResult(ResponseEntity.badRequest().body(causa.getMessage()));
+                } else if (causa != null) {
+                    resultado.setErrorResult(causa);
+                } else {
+                    String token = jwtService.gerarToken(usuarioAutenticado);
+                    resultado.setResult(ResponseEntity.ok(new TokenDTO(usuarioAutenticado.getNome(), token)));
+                }
+            });
         } catch (AutenticacaoException e) {
-            return ResponseEntity.badRequest().body(e.getMessage());
+            resultado.setResult(ResponseEntity.badRequest().body(e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            resultado.setResult(ResponseEntity
+                    .status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body("Muitas autenticações em andamento. Tente novamente em instantes."));
         }
+        return resultado;
     }
 
     // Representa o corpo da resposta
@@ -59,13 +87,40 @@ public class UsuarioController {
     }
 
     @GetMapping("{id}/saldo")
-    public ResponseEntity obterSaldo(@PathVariable("id") Long id) {
+    public ResponseEntity obterSaldo(@PathVariable("id") Long id, WebRequest request) {
+        Optional<MediaType> formato = RespostasCondicionais.formatoBinario(request);
+        Optional<String> etag = RespostasCondicionais.etag(versaoDadosUsuarioService.obterVersao(id), RespostasCondicionais.representacao(formato));
+        if (RespostasCondicionais.naoModificado(request, etag)) {
+            return null;
+        }
 
         Optional<Usuario> usuario = service.obterPorId(id);
         if (!usuario.isPresent()) {
             return new ResponseEntity(HttpStatus.NOT_FOUND);
         }
         BigDecimal saldo = lancamentoService.obterSaldoPorUsuario(id);
-        return ResponseEntity.ok(saldo);
+        return RespostasCondicionais.ok(etag, formato).body(saldo);
+    }
+
+    @GetMapping("{id}/saldo/detalhado")
+    public ResponseEntity obterSaldoDetalhado(@PathVariable("id") Long id, WebRequest request) {
+        Optional<MediaType> formato = RespostasCondicionais.formatoBinario(request);
+        Optional<String> etag = RespostasCondicionais.etag(versaoDadosUsuarioService.obterVersao(id), RespostasCondicionais.representacao(formato));
+        if (RespostasCondicionais.naoModificado(request, etag)) {
+            return null;
+        }
+
+        Optional<Usuario> usuario = service.obterPorId(id);
+        if (!usuario.isPresent()) {
+            return new ResponseEntity(HttpStatus.NOT_FOUND);
+        }
+        SaldoProjection saldo = lancamentoService.obterSaldoDetalhadoPorUsuario(id);
+        SaldoDTO dto = SaldoDTO
+                .builder()
+                .receitas(saldo.getReceitas())
+                .despesas(saldo.getDespesas())
+                .saldo(saldo.getSaldo())
+                .build();
+        return RespostasCondicionais.ok(etag, formato).body(dto);
     }
 }
@@ -0,0 +1,21 @@
+package com.groupsoftware.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/* Seleciona os lançamentos do usuário pelos IDs e/ou pelo período e status atual */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class AtualizaStatusLoteDTO {
+    private List<Long> ids;
+    private Integer ano;
+    private Integer mes;
+    private String statusAtual;
+    private String status;
+}
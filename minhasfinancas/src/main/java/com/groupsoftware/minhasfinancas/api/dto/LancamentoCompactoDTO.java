@@ -0,0 +1,31 @@
+package com.groupsoftware.minhasfinancas.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/* Linha da consulta de lançamentos com nomes curtos, na versão 2 da listagem */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class LancamentoCompactoDTO {
+    @JsonProperty("i")
+    private Long id;
+    @JsonProperty("d")
+    private String descricao;
+    @JsonProperty("m")
+    private Integer mes;
+    @JsonProperty("v")
+    private BigDecimal valor;
+    @JsonProperty("t")
+    private String tipo;
+    @JsonProperty("s")
+    private String status;
+}
@@ -0,0 +1,29 @@
+package com.groupsoftware.minhasfinancas.api.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/* Consulta de lançamentos em colunas, como o relatório: a posição i de cada array forma um lançamento */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LancamentosColunaresDTO {
+    @JsonProperty("i")
+    private long[] id;
+    @JsonProperty("d")
+    private String[] descricao;
+    @JsonProperty("m")
+    private int[] mes;
+    @JsonProperty("v")
+    private BigDecimal[] valor;
+    @JsonProperty("t")
+    private String[] tipo;
+    @JsonProperty("s")
+    private String[] status;
+}
@@ -0,0 +1,19 @@
+package com.groupsoftware.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/* Uma operação do lote: CRIAR e ATUALIZAR usam lancamento, ATUALIZAR_STATUS usa status; todas, menos CRIAR, informam o id */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class OperacaoLancamentoDTO {
+    private String chave;
+    private String operacao;
+    private Long id;
+    private LancamentoDTO lancamento;
+    private String status;
+}
@@ -0,0 +1,21 @@
+package com.groupsoftware.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/* Relatório em colunas: a posição i de cada array forma uma linha (ano, mês, tipo, status, total) */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RelatorioDTO {
+    private int[] ano;
+    private int[] mes;
+    private String[] tipo;
+    private String[] status;
+    private BigDecimal[] total;
+}
@@ -0,0 +1,18 @@
+package com.groupsoftware.minhasfinancas.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SaldoDTO {
+    private BigDecimal receitas;
+    private BigDecimal despesas;
+    private BigDecimal saldo;
+}
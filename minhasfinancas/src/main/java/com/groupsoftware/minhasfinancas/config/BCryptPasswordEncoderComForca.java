@@ -0,0 +1,27 @@
+package com.groupsoftware.minhasfinancas.config;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+// Pede o recálculo de toda senha gravada com força diferente da configurada, para mais ou para menos
+public class BCryptPasswordEncoderComForca extends BCryptPasswordEncoder {
+
+    private int forca;
+
+    public BCryptPasswordEncoderComForca(int forca) {
+        super(forca);
+        this.forca = forca;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Formato do BCrypt: $2a$10$<salt e hash>, em que 10 é a força
+        if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(6) != '$') {
+            return false;
+        }
+        try {
+            return Integer.parseInt(encodedPassword.substring(4, 6)) != forca;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
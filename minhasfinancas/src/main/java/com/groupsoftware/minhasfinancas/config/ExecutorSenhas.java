@@ -0,0 +1,37 @@
+package com.groupsoftware.minhasfinancas.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.Collections;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/*
+ * Threads exclusivas para o BCrypt do login: uma rajada de autenticações ocupa só estas threads, não as do Tomcat.
+ * Com todas ocupadas e a fila cheia, a tarefa é recusada em vez de esperar sem limite.
+ */
+public class ExecutorSenhas implements AutoCloseable {
+
+    private ThreadPoolExecutor executor;
+
+    public ExecutorSenhas(int threads, int fila, MeterRegistry meterRegistry) {
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(fila), new CustomizableThreadFactory("senha-"), new ThreadPoolExecutor.AbortPolicy());
+        new ExecutorServiceMetrics(executor, "financas.senha.executor", Collections.emptyList()).bindTo(meterRegistry);
+    }
+
+    // Lança RejectedExecutionException quando o executor está saturado
+    public <T> CompletableFuture<T> executar(Supplier<T> tarefa) {
+        return CompletableFuture.supplyAsync(tarefa, executor);
+    }
+
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,30 @@
+package com.groupsoftware.minhasfinancas.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/*
+ * Com o jackson-dataformat-cbor e o -smile no classpath, o Spring MVC já registra os conversores de
+ * application/cbor e application/x-jackson-smile, escolhidos pelo Accept sobre os mesmos DTOs do JSON.
+ * Aqui só passam a gravar os valores monetários em centavos.
+ */
+@Configuration
+public class FormatosBinariosConfiguration implements WebMvcConfigurer {
+
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        for (HttpMessageConverter<?> converter : converters) {
+            if (converter instanceof MappingJackson2CborHttpMessageConverter || converter instanceof MappingJackson2SmileHttpMessageConverter) {
+                // Cada conversor tem o seu ObjectMapper: o do JSON não é alterado
+                ((AbstractJackson2HttpMessageConverter) converter).getObjectMapper()
+                        .registerModule(new ModuloValoresEmCentavos());
+            }
+        }
+    }
+}
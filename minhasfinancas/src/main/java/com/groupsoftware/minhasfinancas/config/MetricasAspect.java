@@ -0,0 +1,52 @@
+package com.groupsoftware.minhasfinancas.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.stereotype.Component;
+
+/* Tempo de cada método dos serviços e de cada consulta dos repositórios.
+Os percentis são definidos em application.properties (management.metrics.distribution.*). */
+@Aspect
+@Component
+public class MetricasAspect {
+
+    private MeterRegistry meterRegistry;
+
+    public MetricasAspect(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Around("execution(public * com.groupsoftware.minhasfinancas.service.impl..*(..))")
+    public Object medirServico(ProceedingJoinPoint joinPoint) throws Throwable {
+        return medir("financas.servico", "servico", joinPoint.getSignature().getDeclaringType().getSimpleName(), joinPoint);
+    }
+
+    // Os métodos herdados de JpaRepository são declarados pelo Spring Data: o nome vem da interface do repositório
+    @Around("this(org.springframework.data.repository.Repository)")
+    public Object medirRepositorio(ProceedingJoinPoint joinPoint) throws Throwable {
+        Class<?>[] interfaces = AopProxyUtils.proxiedUserInterfaces(joinPoint.getThis());
+        return medir("financas.repositorio", "repositorio", interfaces[0].getSimpleName(), joinPoint);
+    }
+
+    private Object medir(String metrica, String tagClasse, String classe, ProceedingJoinPoint joinPoint) throws Throwable {
+        Timer.Sample inicio = Timer.start(meterRegistry);
+        String excecao = "none";
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            excecao = e.getClass().getSimpleName();
+            throw e;
+        } finally {
+            inicio.stop(Timer
+                    .builder(metrica)
+                    .tag(tagClasse, classe)
+                    .tag("metodo", joinPoint.getSignature().getName())
+                    .tag("excecao", excecao)
+                    .register(meterRegistry));
+        }
+    }
+}
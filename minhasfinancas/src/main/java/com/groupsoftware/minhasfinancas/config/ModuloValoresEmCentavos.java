@@ -0,0 +1,57 @@
+package com.groupsoftware.minhasfinancas.config;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/*
+ * Valores monetários como inteiro de centavos (R$ 12,34 -> 1234): nos formatos binários um long ocupa poucos bytes
+ * e o cliente não precisa decodificar um decimal. Usado só no CBOR e no Smile; o JSON continua com BigDecimal.
+ */
+public class ModuloValoresEmCentavos extends SimpleModule {
+
+    private static final int CASAS_DECIMAIS = 2;
+
+    public ModuloValoresEmCentavos() {
+        super("ModuloValoresEmCentavos");
+        addSerializer(BigDecimal.class, new CentavosSerializer());
+        addDeserializer(BigDecimal.class, new CentavosDeserializer());
+    }
+
+    static class CentavosSerializer extends StdScalarSerializer<BigDecimal> {
+
+        CentavosSerializer() {
+            super(BigDecimal.class);
+        }
+
+        // Os valores são gravados com duas casas: o arredondamento só atua sobre totais calculados
+        @Override
+        public void serialize(BigDecimal valor, JsonGenerator gerador, SerializerProvider provider) throws IOException {
+            gerador.writeNumber(valor.setScale(CASAS_DECIMAIS, RoundingMode.HALF_EVEN).unscaledValue().longValueExact());
+        }
+    }
+
+    static class CentavosDeserializer extends StdScalarDeserializer<BigDecimal> {
+
+        CentavosDeserializer() {
+            super(BigDecimal.class);
+        }
+
+        @Override
+        public BigDecimal deserialize(JsonParser parser, DeserializationContext contexto) throws IOException {
+            if (parser.hasToken(JsonToken.VALUE_NUMBER_INT)) {
+                return BigDecimal.valueOf(parser.getLongValue(), CASAS_DECIMAIS);
+            }
+            return (BigDecimal) contexto.handleUnexpectedToken(BigDecimal.class, parser);
+        }
+    }
+}
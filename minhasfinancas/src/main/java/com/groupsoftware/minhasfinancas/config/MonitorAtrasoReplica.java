@@ -0,0 +1,66 @@
+package com.groupsoftware.minhasfinancas.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+
+// Mede periodicamente o atraso de replicação e libera a réplica para leitura somente enquanto ele estiver dentro do limite
+@Slf4j
+public class MonitorAtrasoReplica {
+
+    private JdbcTemplate replica;
+    private String consultaAtraso;
+    private Duration atrasoMaximo;
+
+    // Começa indisponível: nenhuma leitura vai para a réplica antes da primeira verificação
+    private volatile boolean replicaDisponivel;
+    private volatile double atrasoEmSegundos = Double.NaN;
+
+    public MonitorAtrasoReplica(JdbcTemplate replica, String consultaAtraso, Duration atrasoMaximo, MeterRegistry meterRegistry) {
+        this.replica = replica;
+        this.consultaAtraso = consultaAtraso;
+        this.atrasoMaximo = atrasoMaximo;
+        Gauge.builder("financas.replica.atraso", this, monitor -> monitor.atrasoEmSegundos)
+                .baseUnit("seconds")
+                .register(meterRegistry);
+        Gauge.builder("financas.replica.disponivel", this, monitor -> monitor.replicaDisponivel ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${replica.verificacao-atraso:5000}")
+    public void verificar() {
+        boolean disponivel;
+        try {
+            Double atraso = replica.queryForObject(consultaAtraso, Double.class);
+            atrasoEmSegundos = atraso == null ? 0 : atraso;
+            disponivel = atrasoEmSegundos <= atrasoMaximo.getSeconds();
+        } catch (DataAccessException e) {
+            atrasoEmSegundos = Double.NaN;
+            disponivel = false;
+            log.debug("Falha ao consultar o atraso da réplica.", e);
+        }
+
+        if (disponivel != replicaDisponivel) {
+            if (disponivel) {
+                log.info("Réplica liberada para leitura (atraso de {}s).", atrasoEmSegundos);
+            } else {
+                log.warn("Leituras redirecionadas ao primário: réplica atrasada ou indisponível (atraso de {}s, limite de {}s).",
+                        atrasoEmSegundos, atrasoMaximo.getSeconds());
+            }
+        }
+        replicaDisponivel = disponivel;
+    }
+
+    public boolean isReplicaDisponivel() {
+        return replicaDisponivel;
+    }
+
+    public Duration getAtrasoMaximo() {
+        return atrasoMaximo;
+    }
+}
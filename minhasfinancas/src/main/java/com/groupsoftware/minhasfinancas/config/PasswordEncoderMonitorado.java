@@ -0,0 +1,34 @@
+package com.groupsoftware.minhasfinancas.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+// Mede o custo do BCrypt na criação de senhas e na autenticação
+public class PasswordEncoderMonitorado implements PasswordEncoder {
+
+    private PasswordEncoder encoder;
+    private Timer codificacao;
+    private Timer comparacao;
+
+    public PasswordEncoderMonitorado(PasswordEncoder encoder, MeterRegistry meterRegistry) {
+        this.encoder = encoder;
+        this.codificacao = Timer.builder("financas.senha").tag("operacao", "encode").register(meterRegistry);
+        this.comparacao = Timer.builder("financas.senha").tag("operacao", "matches").register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return codificacao.record(() -> encoder.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return comparacao.record(() -> encoder.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return encoder.upgradeEncoding(encodedPassword);
+    }
+}
@@ -0,0 +1,26 @@
+package com.groupsoftware.minhasfinancas.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.Getter;
+
+/*
+ * Pools do primário e da réplica. Não são registrados como DataSource no contexto: o único DataSource
+ * é o de roteamento, do qual dependem a inicialização de banco e o JPA do Spring Boot.
+ */
+@Getter
+public class PoolsReplicacao implements AutoCloseable {
+
+    private HikariDataSource primario;
+    private HikariDataSource replica;
+
+    public PoolsReplicacao(HikariDataSource primario, HikariDataSource replica) {
+        this.primario = primario;
+        this.replica = replica;
+    }
+
+    @Override
+    public void close() {
+        replica.close();
+        primario.close();
+    }
+}
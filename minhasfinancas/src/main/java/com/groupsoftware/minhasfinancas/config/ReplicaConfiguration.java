@@ -0,0 +1,62 @@
+package com.groupsoftware.minhasfinancas.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/*
+ * Ativada ao informar replica.datasource.url: o primário continua configurado em spring.datasource.*
+ * e a réplica em replica.datasource.* (inclusive replica.datasource.hikari.*).
+ */
+@Configuration
+@ConditionalOnProperty("replica.datasource.url")
+public class ReplicaConfiguration {
+
+    @Bean
+    public PoolsReplicacao poolsReplicacao(DataSourceProperties properties, Environment environment, MeterRegistry meterRegistry) {
+        Binder binder = Binder.get(environment);
+
+        HikariDataSource primario = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        binder.bind("spring.datasource.hikari", Bindable.ofInstance(primario));
+
+        DataSourceProperties propertiesReplica = binder.bind("replica.datasource", DataSourceProperties.class).get();
+        HikariDataSource replica = propertiesReplica.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        replica.setPoolName("financas-replica");
+        replica.setReadOnly(true);
+        binder.bind("replica.datasource.hikari", Bindable.ofInstance(replica));
+
+        // Como os pools não são beans, as métricas hikaricp_* são ligadas aqui e não pela autoconfiguração
+        primario.setMetricRegistry(meterRegistry);
+        replica.setMetricRegistry(meterRegistry);
+        return new PoolsReplicacao(primario, replica);
+    }
+
+    @Bean
+    public MonitorAtrasoReplica monitorAtrasoReplica(PoolsReplicacao pools,
+                                                     @Value("${replica.consulta-atraso}") String consultaAtraso,
+                                                     @Value("${replica.atraso-maximo:PT10S}") Duration atrasoMaximo,
+                                                     MeterRegistry meterRegistry) {
+        return new MonitorAtrasoReplica(new JdbcTemplate(pools.getReplica()), consultaAtraso, atrasoMaximo, meterRegistry);
+    }
+
+    /*
+     * O JpaTransactionManager obtém a conexão antes de marcar a transação como somente leitura;
+     * o proxy adia a escolha do destino até o primeiro comando SQL, quando a marcação já está feita.
+     */
+    @Bean
+    public DataSource dataSource(PoolsReplicacao pools, MonitorAtrasoReplica monitor) {
+        return new LazyConnectionDataSourceProxy(new RoteamentoDataSource(pools.getPrimario(), pools.getReplica(), monitor));
+    }
+}
@@ -0,0 +1,37 @@
+package com.groupsoftware.minhasfinancas.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/*
+ * Envia as transações somente leitura para a réplica e todo o resto para o banco primário.
+ * Enquanto a réplica estiver atrasada ou fora do ar, as leituras também vão para o primário.
+ */
+public class RoteamentoDataSource extends AbstractRoutingDataSource {
+
+    enum Destino { PRIMARIO, REPLICA }
+
+    private MonitorAtrasoReplica monitor;
+
+    public RoteamentoDataSource(DataSource primario, DataSource replica, MonitorAtrasoReplica monitor) {
+        this.monitor = monitor;
+        Map<Object, Object> destinos = new HashMap<>();
+        destinos.put(Destino.PRIMARIO, primario);
+        destinos.put(Destino.REPLICA, replica);
+        setTargetDataSources(destinos);
+        setDefaultTargetDataSource(primario);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && monitor.isReplicaDisponivel()) {
+            return Destino.REPLICA;
+        }
+        return Destino.PRIMARIO;
+    }
+}
@@ -3,7 +3,9 @@ package com.groupsoftware.minhasfinancas.config;
 import com.groupsoftware.minhasfinancas.api.JwtTokenFilter;
 import com.groupsoftware.minhasfinancas.service.JwtService;
 import com.groupsoftware.minhasfinancas.service.impl.SecurityUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.core.Ordered;
@@ -13,9 +15,10 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.util.matcher.AndRequestMatcher;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.web.filter.CorsFilter;
@@ -30,17 +33,35 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
     private SecurityUserDetailsService userDetailsService;
     @Autowired
     private JwtService jwtService;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Value("${seguranca.principal.somente-token:false}")
+    private boolean principalSomenteToken;
+    @Value("${seguranca.senha.forca-bcrypt:10}")
+    private int forcaBcrypt;
+    @Value("${server.port:8080}")
+    private int portaApi;
+    @Value("${management.server.port:-1}")
+    private int portaGerenciamento;
 
     // Para o objeto ser registrado no contexto do springboot anotar com @Bean dentro de uma classe de configuração
     @Bean
     public PasswordEncoder passwordEncoder() {
-        PasswordEncoder encoder = new BCryptPasswordEncoder();
+        PasswordEncoder encoder = new PasswordEncoderMonitorado(new BCryptPasswordEncoderComForca(forcaBcrypt), meterRegistry);
         return encoder;
     }
 
+    // Sem threads configuradas, uma por núcleo: o BCrypt só usa CPU
+    @Bean
+    public ExecutorSenhas executorSenhas(@Value("${seguranca.senha.threads:0}") int threads,
+                                         @Value("${seguranca.senha.fila:100}") int fila) {
+        int quantidade = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        return new ExecutorSenhas(quantidade, fila, meterRegistry);
+    }
+
     @Bean
     public JwtTokenFilter jwtTokenFilter() {
-        return new JwtTokenFilter(jwtService, userDetailsService);
+        return new JwtTokenFilter(jwtService, userDetailsService, principalSomenteToken);
     }
 
     @Override
@@ -57,6 +78,11 @@ public class SecurityConfiguration extends WebSecurityConfigurerAdapter {
                 .authorizeRequests()
                 .antMatchers(HttpMethod.POST, "/api/usuarios/autenticar").permitAll()
                 .antMatchers(HttpMethod.POST, "/api/usuarios").permitAll()
+                .antMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+                // Sem autenticação somente na porta de gerenciamento, que fica restrita à rede interna; na porta da API exige token
+                .requestMatchers(new AndRequestMatcher(
+                        new AntPathRequestMatcher("/actuator/prometheus", HttpMethod.GET.name()),
+                        request -> portaGerenciamento != portaApi && request.getLocalPort() == portaGerenciamento)).permitAll()
                 .anyRequest().authenticated()
                 .and()
                 .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
@@ -0,0 +1,43 @@
+package com.groupsoftware.minhasfinancas.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+ * Modo opcional (servidor.threads-virtuais=true): o Tomcat atende cada requisição em uma thread virtual,
+ * que libera a thread do sistema enquanto espera conexão do pool, JDBC ou resposta; as URLs não mudam.
+ * Exige JDK 21 ou superior em execução. O projeto ainda compila para Java 8, por isso a API é obtida por reflexão.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "servidor.threads-virtuais", havingValue = "true")
+public class ThreadsVirtuaisConfiguration {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService executorThreadsVirtuais() {
+        try {
+            Method fabrica = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            ExecutorService executor = (ExecutorService) fabrica.invoke(null);
+            log.info("Requisições atendidas em threads virtuais (Java {}).", System.getProperty("java.version"));
+            return executor;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("servidor.threads-virtuais=true exige JDK 21 ou superior; em execução: "
+                    + System.getProperty("java.version"), e);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Falha ao criar o executor de threads virtuais.", e);
+        }
+    }
+
+    // Substitui o pool de threads do conector (server.tomcat.max-threads deixa de valer)
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> conectorThreadsVirtuais(ExecutorService executorThreadsVirtuais) {
+        return protocolHandler -> protocolHandler.setExecutor(executorThreadsVirtuais);
+    }
+}
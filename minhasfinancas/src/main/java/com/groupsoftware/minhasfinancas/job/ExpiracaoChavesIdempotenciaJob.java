@@ -0,0 +1,21 @@
+package com.groupsoftware.minhasfinancas.job;
+
+import com.groupsoftware.minhasfinancas.service.ChaveIdempotenciaService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/* Remove periodicamente as chaves de idempotência das operações em lote que já expiraram */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ExpiracaoChavesIdempotenciaJob {
+    private final ChaveIdempotenciaService chaveIdempotenciaService;
+
+    @Scheduled(cron = "${lote.idempotencia.limpeza.cron}")
+    public void executar() {
+        int removidas = chaveIdempotenciaService.removerExpiradas();
+        log.info("Limpeza de chaves de idempotência removeu {} chave(s) expirada(s).", removidas);
+    }
+}
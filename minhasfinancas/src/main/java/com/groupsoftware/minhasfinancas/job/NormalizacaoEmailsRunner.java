@@ -0,0 +1,28 @@
+package com.groupsoftware.minhasfinancas.job;
+
+import com.groupsoftware.minhasfinancas.service.UsuarioService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/* O login e o cadastro consultam o email normalizado: os emails gravados antes disso são normalizados ao subir a aplicação */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class NormalizacaoEmailsRunner implements ApplicationRunner {
+
+    private final UsuarioService usuarioService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        List<String> conflitos = usuarioService.normalizarEmailsCadastrados();
+        if (!conflitos.isEmpty()) {
+            log.error("Emails cadastrados por mais de um usuário, diferindo só em maiúsculas ou espaços: {}. "
+                    + "Unifique os cadastros para que esses usuários voltem a entrar e o índice uk_usuario_email possa ser criado.", conflitos);
+        }
+    }
+}
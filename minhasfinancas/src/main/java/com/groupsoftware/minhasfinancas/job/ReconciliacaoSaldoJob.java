@@ -0,0 +1,49 @@
+package com.groupsoftware.minhasfinancas.job;
+
+import com.groupsoftware.minhasfinancas.service.SaldoUsuarioService;
+import com.groupsoftware.minhasfinancas.service.VersaoDadosUsuarioService;
+import com.groupsoftware.minhasfinancas.service.dto.DivergenciaSaldo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/* Reconstrói periodicamente os totais de saldo a partir dos lançamentos e registra qualquer divergência encontrada.
+Também roda ao subir a aplicação, criando os totais dos usuários cadastrados antes da tabela saldo_usuario */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReconciliacaoSaldoJob implements ApplicationRunner {
+    private final SaldoUsuarioService saldoUsuarioService;
+    private final VersaoDadosUsuarioService versaoDadosUsuarioService;
+
+    @Value("${saldo.reconciliacao.ao-iniciar:true}")
+    private boolean aoIniciar;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (aoIniciar) {
+            executar();
+        }
+    }
+
+    @Scheduled(cron = "${saldo.reconciliacao.cron}")
+    public void executar() {
+        List<DivergenciaSaldo> divergencias = saldoUsuarioService.reconciliar();
+        if (divergencias.isEmpty()) {
+            log.info("Reconciliação de saldos concluída sem divergências.");
+            return;
+        }
+        divergencias.forEach(divergencia -> {
+            log.warn("Saldo divergente corrigido: {}", divergencia);
+            // O saldo corrigido invalida as ETags já emitidas para o usuário
+            versaoDadosUsuarioService.registrarAlteracao(divergencia.getIdUsuario());
+        });
+        log.warn("Reconciliação de saldos corrigiu {} total(is).", divergencias.size());
+    }
+}
@@ -0,0 +1,27 @@
+package com.groupsoftware.minhasfinancas.job;
+
+import com.groupsoftware.minhasfinancas.service.ResumoMensalService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+
+/* Reconstrói o resumo mensal a partir dos lançamentos quando a aplicação sobe com --reconstruir-resumo-mensal */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReconstrucaoResumoMensalRunner implements ApplicationRunner {
+    static final String OPCAO = "reconstruir-resumo-mensal";
+
+    private final ResumoMensalService resumoMensalService;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(OPCAO)) {
+            return;
+        }
+        int linhas = resumoMensalService.reconstruir();
+        log.info("Resumo mensal reconstruído com {} linha(s).", linhas);
+    }
+}
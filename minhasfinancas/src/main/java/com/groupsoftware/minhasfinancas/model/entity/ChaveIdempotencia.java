@@ -0,0 +1,63 @@
+package com.groupsoftware.minhasfinancas.model.entity;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.SequenceGenerator;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/* Resultado de uma operação em lote, guardado pela chave do cliente até expirar: apenas a situação, o lançamento e a mensagem de erro */
+@Entity
+@Table(name = "chave_idempotencia", schema = "financas",
+		uniqueConstraints = @UniqueConstraint(name = ChaveIdempotencia.RESTRICAO_CHAVE, columnNames = { "id_usuario", "chave" }),
+		indexes = @Index(name = "idx_chave_idempotencia_expiracao", columnList = "expira_em"))
+@Builder
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChaveIdempotencia {
+
+	/* Violada quando duas requisições gravam a mesma chave ao mesmo tempo */
+	public static final String RESTRICAO_CHAVE = "uk_chave_idempotencia";
+
+	@Id
+	@Column(name = "id")
+	/* Mesma alocação em blocos dos lançamentos, para que as chaves de um lote sejam gravadas em lotes JDBC:
+	alter sequence financas.chave_idempotencia_id_seq increment by 50 */
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chave_idempotencia_id_seq")
+	@SequenceGenerator(name = "chave_idempotencia_id_seq", schema = "financas", sequenceName = "chave_idempotencia_id_seq", allocationSize = 50)
+	private Long id;
+
+	/* Somente o id: a chave nunca é lida junto com o usuário */
+	@Column(name = "id_usuario")
+	private Long idUsuario;
+
+	@Column(name = "chave", length = 64)
+	private String chave;
+
+	/* Código HTTP da operação */
+	@Column(name = "situacao")
+	private Short situacao;
+
+	@Column(name = "id_lancamento")
+	private Long idLancamento;
+
+	/* Preenchida somente nas operações recusadas */
+	@Column(name = "mensagem")
+	private String mensagem;
+
+	@Column(name = "expira_em")
+	private Instant expiraEm;
+
+}
@@ -8,11 +8,14 @@ import javax.persistence.Convert;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
 import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
 
 import lombok.AllArgsConstructor;
@@ -24,9 +27,15 @@ import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
 
 import lombok.Builder;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 @Entity
-@Table(name = "lancamento", schema = "financas")
+@Table(name = "lancamento", schema = "financas",
+		indexes = {
+				@Index(name = "idx_lancamento_usuario_periodo", columnList = "id_usuario, ano, mes, id"),
+				/* Cobre a reconstrução do resumo mensal: o agrupamento é lido inteiro do índice, sem acessar a tabela */
+				@Index(name = "idx_lancamento_relatorio", columnList = "id_usuario, ano, mes, tipo, status, valor")})
 @Builder
 @Data
 @NoArgsConstructor
@@ -35,7 +44,11 @@ public class Lancamento {
 
 	@Id
 	@Column(name = "id")
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	/* Sequência com alocação em blocos de 50 permite que o Hibernate agrupe os INSERTs em lotes JDBC,
+	o que IDENTITY impede. A sequência no banco precisa ter o mesmo incremento:
+	alter sequence financas.lancamento_id_seq increment by 50 */
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "lancamento_id_seq")
+	@SequenceGenerator(name = "lancamento_id_seq", schema = "financas", sequenceName = "lancamento_id_seq", allocationSize = 50)
 	private Long id;
 
 	@Column(name = "descricao")
@@ -47,9 +60,13 @@ public class Lancamento {
 	@Column(name = "ano")
 	private Integer ano;
 
-	@ManyToOne
+	/* LAZY: consultas e conversões só usam o id do usuário, que o proxy já conhece sem acessar o banco */
+	@ManyToOne(fetch = FetchType.LAZY)
 	/* JoinColumn para apontar que é uma coluna de relacionamento */
 	@JoinColumn(name = "id_usuario")
+	/* Fora de equals/hashCode/toString para não inicializar o proxy (nem falhar fora da sessão) */
+	@EqualsAndHashCode.Exclude
+	@ToString.Exclude
 	private Usuario usuario;
 
 	@Column(name = "valor")
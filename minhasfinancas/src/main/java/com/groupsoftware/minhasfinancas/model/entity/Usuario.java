@@ -5,7 +5,10 @@ import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.AllArgsConstructor;
@@ -13,8 +16,11 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.Locale;
+
 @Entity
-@Table(name = "usuario", schema = "financas")
+@Table(name = "usuario", schema = "financas",
+		uniqueConstraints = @UniqueConstraint(name = "uk_usuario_email", columnNames = "email"))
 @Builder
 @Data
 @NoArgsConstructor
@@ -35,4 +41,15 @@ public class Usuario {
 	@Column(name = "senha")
 	@JsonIgnore
 	private String senha;
+
+	/* O email é gravado sempre normalizado, de modo que o índice único também vale para maiúsculas e minúsculas */
+	@PrePersist
+	@PreUpdate
+	void normalizarEmail() {
+		email = normalizarEmail(email);
+	}
+
+	public static String normalizarEmail(String email) {
+		return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+	}
 }
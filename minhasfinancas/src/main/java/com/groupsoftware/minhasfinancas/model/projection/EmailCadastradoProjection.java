@@ -0,0 +1,8 @@
+package com.groupsoftware.minhasfinancas.model.projection;
+
+public interface EmailCadastradoProjection {
+
+    Long getId();
+
+    String getEmail();
+}
@@ -0,0 +1,46 @@
+package com.groupsoftware.minhasfinancas.model.projection;
+
+import com.groupsoftware.minhasfinancas.model.entity.Lancamento;
+import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
+import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.math.BigDecimal;
+
+/* Campos de um lançamento que afetam o saldo do usuário e o resumo mensal */
+@Getter
+@AllArgsConstructor
+public class LancamentoContabil {
+    private Long idUsuario;
+    private Integer ano;
+    private Integer mes;
+    private TipoLancamento tipo;
+    private StatusLancamento status;
+    private BigDecimal valor;
+
+    public static LancamentoContabil de(Lancamento lancamento) {
+        Long idUsuario = lancamento.getUsuario() != null ? lancamento.getUsuario().getId() : null;
+        return new LancamentoContabil(idUsuario, lancamento.getAno(), lancamento.getMes(),
+                lancamento.getTipo(), lancamento.getStatus(), lancamento.getValor());
+    }
+
+    public LancamentoContabil comStatus(StatusLancamento novoStatus) {
+        return new LancamentoContabil(idUsuario, ano, mes, tipo, novoStatus, valor);
+    }
+
+    // Somente lançamentos efetivados compõem o saldo
+    public boolean isEfetivado() {
+        return status == StatusLancamento.EFETIVADO && idUsuario != null && tipo != null && valor != null;
+    }
+
+    // Todo lançamento gravado compõe o resumo mensal, qualquer que seja o status
+    public boolean isCompleto() {
+        return idUsuario != null && ano != null && mes != null && tipo != null && status != null && valor != null;
+    }
+
+    public boolean isMesmoResumo(LancamentoContabil outro) {
+        return idUsuario.equals(outro.idUsuario) && ano.equals(outro.ano) && mes.equals(outro.mes)
+                && tipo == outro.tipo && status == outro.status;
+    }
+}
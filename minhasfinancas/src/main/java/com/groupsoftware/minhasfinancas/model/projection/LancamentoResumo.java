@@ -0,0 +1,22 @@
+package com.groupsoftware.minhasfinancas.model.projection;
+
+import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
+import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/* Linha da tabela de consulta de lançamentos: somente as colunas exibidas, sem o usuário */
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor // Leitura do cache compartilhado
+public class LancamentoResumo {
+    private Long id;
+    private String descricao;
+    private Integer mes;
+    private BigDecimal valor;
+    private TipoLancamento tipo;
+    private StatusLancamento status;
+}
@@ -0,0 +1,15 @@
+package com.groupsoftware.minhasfinancas.model.projection;
+
+import java.math.BigDecimal;
+
+/* Totais efetivados de um usuário, obtidos em uma única consulta agregada */
+public interface SaldoProjection {
+
+    BigDecimal getReceitas();
+
+    BigDecimal getDespesas();
+
+    default BigDecimal getSaldo() {
+        return getReceitas().subtract(getDespesas());
+    }
+}
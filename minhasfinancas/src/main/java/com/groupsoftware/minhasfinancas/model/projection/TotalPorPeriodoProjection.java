@@ -0,0 +1,19 @@
+package com.groupsoftware.minhasfinancas.model.projection;
+
+import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
+import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+
+import java.math.BigDecimal;
+
+public interface TotalPorPeriodoProjection {
+
+    Integer getAno();
+
+    Integer getMes();
+
+    TipoLancamento getTipo();
+
+    StatusLancamento getStatus();
+
+    BigDecimal getTotal();
+}
@@ -0,0 +1,14 @@
+package com.groupsoftware.minhasfinancas.model.projection;
+
+import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+
+import java.math.BigDecimal;
+
+public interface TotalPorTipoProjection {
+
+    Long getIdUsuario();
+
+    TipoLancamento getTipo();
+
+    BigDecimal getTotal();
+}
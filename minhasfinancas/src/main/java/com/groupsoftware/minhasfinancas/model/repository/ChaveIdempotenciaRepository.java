@@ -0,0 +1,27 @@
+package com.groupsoftware.minhasfinancas.model.repository;
+
+import com.groupsoftware.minhasfinancas.model.entity.ChaveIdempotencia;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface ChaveIdempotenciaRepository extends JpaRepository<ChaveIdempotencia, Long> {
+
+    // Uma única consulta pela chave única para todas as chaves do lote
+    @Query(" select c from ChaveIdempotencia c where c.idUsuario = :idUsuario and c.chave in :chaves and c.expiraEm > :agora ")
+    List<ChaveIdempotencia> buscarVigentes(@Param("idUsuario") Long idUsuario, @Param("chaves") Collection<String> chaves, @Param("agora") Instant agora);
+
+    // Libera chaves expiradas que o cliente voltou a usar antes da limpeza periódica
+    @Modifying
+    @Query(" delete from ChaveIdempotencia c where c.idUsuario = :idUsuario and c.chave in :chaves and c.expiraEm <= :agora ")
+    int removerExpiradas(@Param("idUsuario") Long idUsuario, @Param("chaves") Collection<String> chaves, @Param("agora") Instant agora);
+
+    @Modifying
+    @Query(" delete from ChaveIdempotencia c where c.expiraEm <= :agora ")
+    int removerExpiradas(@Param("agora") Instant agora);
+}
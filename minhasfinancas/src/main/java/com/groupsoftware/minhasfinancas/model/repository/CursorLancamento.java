@@ -0,0 +1,38 @@
+package com.groupsoftware.minhasfinancas.model.repository;
+
+import com.groupsoftware.minhasfinancas.exception.RegraNegocioException;
+import com.groupsoftware.minhasfinancas.model.entity.Lancamento;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/* Posição do último lançamento lido na ordem (ano, mes, id). A próxima página começa logo após ela. */
+@Getter
+@AllArgsConstructor
+public class CursorLancamento {
+    private Integer ano;
+    private Integer mes;
+    private Long id;
+
+    public static CursorLancamento de(Lancamento lancamento) {
+        return new CursorLancamento(lancamento.getAno(), lancamento.getMes(), lancamento.getId());
+    }
+
+    // Token opaco entregue ao cliente
+    public String codificar() {
+        String valor = ano + ":" + mes + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(valor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static CursorLancamento decodificar(String token) {
+        try {
+            String valor = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] partes = valor.split(":");
+            return new CursorLancamento(Integer.valueOf(partes[0]), Integer.valueOf(partes[1]), Long.valueOf(partes[2]));
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new RegraNegocioException("Cursor de paginação inválido.");
+        }
+    }
+}
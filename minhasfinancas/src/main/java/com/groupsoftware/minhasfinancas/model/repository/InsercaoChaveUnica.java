@@ -0,0 +1,43 @@
+package com.groupsoftware.minhasfinancas.model.repository;
+
+import org.hibernate.Session;
+
+import javax.persistence.EntityManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+
+/*
+ * Insere uma linha de chave única dentro de um savepoint, pela mesma conexão da transação em andamento.
+ * Se outra transação gravou a mesma chave, a inserção é desfeita e a transação atual continua válida:
+ * no PostgreSQL um comando que falha invalida a transação inteira, e pelo EntityManager a falha a marcaria para rollback.
+ */
+final class InsercaoChaveUnica {
+
+    // unique_violation, o mesmo código no PostgreSQL e no H2
+    private static final String VIOLACAO_CHAVE_UNICA = "23505";
+
+    private InsercaoChaveUnica() {
+    }
+
+    // false quando a chave já existe
+    static boolean inserir(EntityManager entityManager, String sql, Object... parametros) {
+        return entityManager.unwrap(Session.class).doReturningWork(conexao -> {
+            Savepoint savepoint = conexao.setSavepoint();
+            try (PreparedStatement insert = conexao.prepareStatement(sql)) {
+                for (int i = 0; i < parametros.length; i++) {
+                    insert.setObject(i + 1, parametros[i]);
+                }
+                insert.executeUpdate();
+            } catch (SQLException e) {
+                conexao.rollback(savepoint);
+                if (VIOLACAO_CHAVE_UNICA.equals(e.getSQLState())) {
+                    return false;
+                }
+                throw e;
+            }
+            conexao.releaseSavepoint(savepoint);
+            return true;
+        });
+    }
+}
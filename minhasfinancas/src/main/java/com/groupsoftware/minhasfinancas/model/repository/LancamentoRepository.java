@@ -2,22 +2,59 @@ package com.groupsoftware.minhasfinancas.model.repository;
 
 import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
 import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+import com.groupsoftware.minhasfinancas.model.projection.LancamentoContabil;
+import com.groupsoftware.minhasfinancas.model.projection.TotalPorTipoProjection;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 
 import com.groupsoftware.minhasfinancas.model.entity.Lancamento;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface LancamentoRepository extends JpaRepository<Lancamento, Long> {
+public interface LancamentoRepository extends JpaRepository<Lancamento, Long>, JpaSpecificationExecutor<Lancamento>, LancamentoRepositoryCustom {
 
+    // Totais apurados diretamente dos lançamentos, usados na reconciliação do saldo
     @Query(value =
-            " select sum(l.valor) from Lancamento l join l.usuario u "
-                    + " where u.id = :idUsuario and l.tipo =:tipo and l.status = :status group by u ")
-    BigDecimal obterSaldoPorTipoLancamentoEUsuarioEStatus(
-            @Param("idUsuario") Long idUsuario,
-            @Param("tipo") TipoLancamento tipo,
-            @Param("status") StatusLancamento status);
-
-}
\ No newline at end of file
+            " select l.usuario.id as idUsuario, l.tipo as tipo, sum(l.valor) as total from Lancamento l "
+                    + " where l.status = :status group by l.usuario.id, l.tipo ")
+    List<TotalPorTipoProjection> obterTotaisPorUsuarioETipo(@Param("status") StatusLancamento status);
+
+    /* Lê o estado gravado na base sem descarregar alterações pendentes no contexto de persistência,
+    para que o saldo seja ajustado pela diferença entre o valor anterior e o novo.
+    A linha fica bloqueada até o commit: nenhuma escrita concorrente muda o estado entre esta leitura e o UPDATE. */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @org.springframework.data.jpa.repository.QueryHints(@QueryHint(name = QueryHints.FLUSH_MODE, value = "COMMIT"))
+    @Query(" select new com.groupsoftware.minhasfinancas.model.projection.LancamentoContabil(l.usuario.id, l.ano, l.mes, l.tipo, l.status, l.valor) "
+            + " from Lancamento l where l.id = :id ")
+    Optional<LancamentoContabil> obterSituacaoContabil(@Param("id") Long id);
+
+    // Atualização em um único UPDATE, sem o SELECT do merge; zero linhas indica lançamento inexistente ou de outro usuário
+    @Modifying
+    @Query(" update Lancamento l set l.descricao = :descricao, l.mes = :mes, l.ano = :ano, l.valor = :valor, "
+            + " l.tipo = :tipo, l.status = :status where l.id = :id and l.usuario.id = :idUsuario ")
+    int atualizarDados(@Param("id") Long id, @Param("idUsuario") Long idUsuario,
+                       @Param("descricao") String descricao, @Param("mes") Integer mes, @Param("ano") Integer ano,
+                       @Param("valor") BigDecimal valor, @Param("tipo") TipoLancamento tipo, @Param("status") StatusLancamento status);
+
+    @Modifying
+    @Query(" update Lancamento l set l.status = :status where l.id = :id and l.usuario.id = :idUsuario ")
+    int atualizarStatus(@Param("id") Long id, @Param("idUsuario") Long idUsuario, @Param("status") StatusLancamento status);
+
+    // Leitura em lotes pelo cursor do banco (exige transação aberta enquanto o Stream é consumido)
+    @org.springframework.data.jpa.repository.QueryHints({
+            @QueryHint(name = QueryHints.FETCH_SIZE, value = "500"),
+            @QueryHint(name = QueryHints.READ_ONLY, value = "true")})
+    @Query(" select l from Lancamento l where l.usuario.id = :idUsuario order by l.ano, l.mes, l.id ")
+    Stream<Lancamento> listarPorUsuario(@Param("idUsuario") Long idUsuario);
+
+}
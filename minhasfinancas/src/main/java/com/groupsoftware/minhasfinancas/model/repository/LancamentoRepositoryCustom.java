@@ -0,0 +1,31 @@
+package com.groupsoftware.minhasfinancas.model.repository;
+
+import com.groupsoftware.minhasfinancas.model.entity.Lancamento;
+import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
+import com.groupsoftware.minhasfinancas.model.projection.LancamentoContabil;
+import com.groupsoftware.minhasfinancas.model.projection.LancamentoResumo;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+
+public interface LancamentoRepositoryCustom {
+
+    /* Lê até "limite" lançamentos posteriores ao cursor (ou do início, se nulo) na ordem (ano, mes, id),
+    sem OFFSET: o custo de qualquer página é o mesmo da primeira. */
+    List<Lancamento> buscarApos(Specification<Lancamento> filtro, CursorLancamento cursor, int limite);
+
+    // Consulta somente as colunas do resumo, na ordem (ano, mes, id), sem carregar entidades
+    List<LancamentoResumo> buscarResumos(Specification<Lancamento> filtro);
+
+    // Bloqueia para atualização (select ... for update) os lançamentos do filtro, na ordem dos ids, e retorna os ids bloqueados
+    List<Long> bloquearIds(Specification<Lancamento> filtro);
+
+    // Totais de valor por usuário, ano, mês, tipo e status dos lançamentos do filtro
+    List<LancamentoContabil> obterTotaisContabeis(Specification<Lancamento> filtro);
+
+    // Aplica o status a todos os lançamentos do filtro em um único UPDATE e retorna a quantidade de linhas alteradas
+    int atualizarStatus(Specification<Lancamento> filtro, StatusLancamento status);
+
+    // Remove o lançamento do contexto de persistência para que leituras longas não acumulem entidades
+    void desanexar(Lancamento lancamento);
+}
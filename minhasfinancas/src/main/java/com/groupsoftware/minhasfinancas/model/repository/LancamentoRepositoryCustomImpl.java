@@ -0,0 +1,125 @@
+package com.groupsoftware.minhasfinancas.model.repository;
+
+import com.groupsoftware.minhasfinancas.model.entity.Lancamento;
+import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
+import com.groupsoftware.minhasfinancas.model.projection.LancamentoContabil;
+import com.groupsoftware.minhasfinancas.model.projection.LancamentoResumo;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.LockModeType;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+public class LancamentoRepositoryCustomImpl implements LancamentoRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Lancamento> buscarApos(Specification<Lancamento> filtro, CursorLancamento cursor, int limite) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Lancamento> query = cb.createQuery(Lancamento.class);
+        Root<Lancamento> root = query.from(Lancamento.class);
+
+        List<Predicate> predicados = new ArrayList<>();
+        if (filtro != null) {
+            Predicate predicado = filtro.toPredicate(root, query, cb);
+            if (predicado != null) {
+                predicados.add(predicado);
+            }
+        }
+        if (cursor != null) {
+            // (ano, mes, id) > (cursor.ano, cursor.mes, cursor.id)
+            predicados.add(cb.or(
+                    cb.greaterThan(root.get("ano"), cursor.getAno()),
+                    cb.and(cb.equal(root.get("ano"), cursor.getAno()), cb.or(
+                            cb.greaterThan(root.get("mes"), cursor.getMes()),
+                            cb.and(cb.equal(root.get("mes"), cursor.getMes()), cb.greaterThan(root.get("id"), cursor.getId()))))));
+        }
+
+        query.select(root)
+                .where(predicados.toArray(new Predicate[0]))
+                .orderBy(cb.asc(root.get("ano")), cb.asc(root.get("mes")), cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query).setMaxResults(limite).getResultList();
+    }
+
+    @Override
+    public List<LancamentoResumo> buscarResumos(Specification<Lancamento> filtro) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<LancamentoResumo> query = cb.createQuery(LancamentoResumo.class);
+        Root<Lancamento> root = query.from(Lancamento.class);
+
+        Predicate predicado = filtro != null ? filtro.toPredicate(root, query, cb) : null;
+        if (predicado != null) {
+            query.where(predicado);
+        }
+
+        query.select(cb.construct(LancamentoResumo.class,
+                        root.get("id"),
+                        root.get("descricao"),
+                        root.get("mes"),
+                        root.get("valor"),
+                        root.get("tipo"),
+                        root.get("status")))
+                .orderBy(cb.asc(root.get("ano")), cb.asc(root.get("mes")), cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public List<Long> bloquearIds(Specification<Lancamento> filtro) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Lancamento> root = query.from(Lancamento.class);
+
+        // Sempre na mesma ordem, para que dois lotes sobre as mesmas linhas esperem um pelo outro em vez de travarem
+        query.select(root.get("id"))
+                .where(filtro.toPredicate(root, query, cb))
+                .orderBy(cb.asc(root.get("id")));
+
+        return entityManager.createQuery(query).setLockMode(LockModeType.PESSIMISTIC_WRITE).getResultList();
+    }
+
+    @Override
+    public List<LancamentoContabil> obterTotaisContabeis(Specification<Lancamento> filtro) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<LancamentoContabil> query = cb.createQuery(LancamentoContabil.class);
+        Root<Lancamento> root = query.from(Lancamento.class);
+
+        Path<Long> idUsuario = root.get("usuario").get("id");
+        query.select(cb.construct(LancamentoContabil.class, idUsuario, root.get("ano"), root.get("mes"),
+                        root.get("tipo"), root.get("status"), cb.sum(root.<BigDecimal>get("valor"))))
+                .where(filtro.toPredicate(root, query, cb))
+                .groupBy(idUsuario, root.get("ano"), root.get("mes"), root.get("tipo"), root.get("status"));
+
+        return entityManager.createQuery(query).getResultList();
+    }
+
+    @Override
+    public int atualizarStatus(Specification<Lancamento> filtro, StatusLancamento status) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaUpdate<Lancamento> update = cb.createCriteriaUpdate(Lancamento.class);
+        Root<Lancamento> root = update.from(Lancamento.class);
+
+        // Os filtros de lançamento não usam a consulta, apenas a raiz
+        update.set(root.get("status"), status)
+                .where(filtro.toPredicate(root, null, cb));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    @Override
+    public void desanexar(Lancamento lancamento) {
+        entityManager.detach(lancamento);
+    }
+}
@@ -0,0 +1,67 @@
+package com.groupsoftware.minhasfinancas.model.repository;
+
+import com.groupsoftware.minhasfinancas.model.entity.Lancamento;
+import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
+
+import java.util.Collection;
+
+/* Filtros da consulta de lançamentos. Filtros sem valor retornam null e são ignorados na composição. */
+public final class LancamentoSpecifications {
+
+    private LancamentoSpecifications() {
+    }
+
+    // Usuário, ano e mês seguem a ordem do índice idx_lancamento_usuario_periodo
+    public static Specification<Lancamento> doUsuario(Long idUsuario) {
+        if (idUsuario == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("usuario").get("id"), idUsuario);
+    }
+
+    public static Specification<Lancamento> doAno(Integer ano) {
+        if (ano == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("ano"), ano);
+    }
+
+    public static Specification<Lancamento> doMes(Integer mes) {
+        if (mes == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("mes"), mes);
+    }
+
+    // Aplicado somente sobre as linhas já restritas pelo índice
+    public static Specification<Lancamento> comDescricao(String descricao) {
+        if (descricao == null || descricao.trim().isEmpty()) {
+            return null;
+        }
+        String padrao = "%" + EscapeCharacter.DEFAULT.escape(descricao.trim().toLowerCase()) + "%";
+        return (root, query, cb) -> cb.like(cb.lower(root.get("descricao")), padrao, EscapeCharacter.DEFAULT.getEscapeCharacter());
+    }
+
+    public static Specification<Lancamento> comIds(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return null;
+        }
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    public static Specification<Lancamento> comStatus(StatusLancamento status) {
+        if (status == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.equal(root.get("status"), status);
+    }
+
+    public static Specification<Lancamento> semStatus(StatusLancamento status) {
+        if (status == null) {
+            return null;
+        }
+        return (root, query, cb) -> cb.notEqual(root.get("status"), status);
+    }
+}
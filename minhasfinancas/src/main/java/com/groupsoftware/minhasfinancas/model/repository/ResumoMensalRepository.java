@@ -0,0 +1,51 @@
+package com.groupsoftware.minhasfinancas.model.repository;
+
+import com.groupsoftware.minhasfinancas.model.entity.ResumoMensal;
+import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
+import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+import com.groupsoftware.minhasfinancas.model.projection.TotalPorPeriodoProjection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface ResumoMensalRepository extends JpaRepository<ResumoMensal, Long>, ResumoMensalRepositoryCustom {
+
+    // Totais do intervalo por mês, tipo e status, lidos do resumo (uma linha por combinação) e não dos lançamentos
+    @Query(value =
+            " select r.ano as ano, r.mes as mes, r.tipo as tipo, r.status as status, r.total as total from ResumoMensal r "
+                    + " where r.usuario.id = :idUsuario and r.ano between :anoInicio and :anoFim "
+                    + " and r.ano * 100 + r.mes between :periodoInicio and :periodoFim and r.total <> 0 "
+                    + " order by r.ano, r.mes, r.tipo, r.status ")
+    List<TotalPorPeriodoProjection> obterTotaisPorPeriodo(@Param("idUsuario") Long idUsuario,
+                                                          @Param("anoInicio") Integer anoInicio, @Param("anoFim") Integer anoFim,
+                                                          @Param("periodoInicio") Integer periodoInicio, @Param("periodoFim") Integer periodoFim);
+
+    // Soma sobre a linha do mês; nenhuma linha alterada no primeiro lançamento do mês com esse tipo e status
+    @Modifying
+    @Query(" update ResumoMensal r set r.total = r.total + :valor where r.usuario.id = :idUsuario "
+            + " and r.ano = :ano and r.mes = :mes and r.tipo = :tipo and r.status = :status ")
+    int somarAoTotal(@Param("idUsuario") Long idUsuario, @Param("ano") Integer ano, @Param("mes") Integer mes,
+                     @Param("tipo") TipoLancamento tipo, @Param("status") StatusLancamento status, @Param("valor") BigDecimal valor);
+
+    // Mesmo bloqueio da reconciliação de saldos: as linhas existentes, sempre na mesma ordem, até o fim da transação
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(" select r.id from ResumoMensal r order by r.id ")
+    List<Long> bloquearTodos();
+
+    @Modifying
+    @Query(" delete from ResumoMensal r ")
+    int removerTodos();
+
+    // Recalcula todos os resumos a partir dos lançamentos em um único INSERT ... SELECT
+    @Modifying
+    @Query(value = " insert into financas.lancamento_resumo_mensal (id_usuario, ano, mes, tipo, status, total) "
+            + " select id_usuario, ano, mes, tipo, status, sum(valor) from financas.lancamento "
+            + " group by id_usuario, ano, mes, tipo, status ", nativeQuery = true)
+    int reconstruir();
+}
@@ -0,0 +1,12 @@
+package com.groupsoftware.minhasfinancas.model.repository;
+
+import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
+import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+
+import java.math.BigDecimal;
+
+public interface ResumoMensalRepositoryCustom {
+
+    // Cria a linha do mês já com o valor; false quando outra transação criou a mesma linha antes
+    boolean criarResumo(Long idUsuario, Integer ano, Integer mes, TipoLancamento tipo, StatusLancamento status, BigDecimal valor);
+}
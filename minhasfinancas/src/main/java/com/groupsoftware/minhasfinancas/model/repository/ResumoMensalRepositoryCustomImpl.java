@@ -0,0 +1,21 @@
+package com.groupsoftware.minhasfinancas.model.repository;
+
+import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
+import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.math.BigDecimal;
+
+public class ResumoMensalRepositoryCustomImpl implements ResumoMensalRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public boolean criarResumo(Long idUsuario, Integer ano, Integer mes, TipoLancamento tipo, StatusLancamento status, BigDecimal valor) {
+        return InsercaoChaveUnica.inserir(entityManager,
+                " insert into financas.lancamento_resumo_mensal (id_usuario, ano, mes, tipo, status, total) values (?, ?, ?, ?, ?, ?) ",
+                idUsuario, ano, mes, tipo.name(), status.name(), valor);
+    }
+}
@@ -0,0 +1,35 @@
+package com.groupsoftware.minhasfinancas.model.repository;
+
+import com.groupsoftware.minhasfinancas.model.entity.SaldoUsuario;
+import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+import com.groupsoftware.minhasfinancas.model.projection.SaldoProjection;
+import com.groupsoftware.minhasfinancas.model.projection.TotalPorTipoProjection;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import javax.persistence.LockModeType;
+import java.math.BigDecimal;
+import java.util.List;
+
+public interface SaldoUsuarioRepository extends JpaRepository<SaldoUsuario, Long>, SaldoUsuarioRepositoryCustom {
+
+    // No máximo duas linhas por usuário (uma por tipo), lidas pela chave única
+    @Query(value =
+            " select coalesce(sum(case when s.tipo = com.groupsoftware.minhasfinancas.model.enums.TipoLancamento.RECEITA then s.total else 0 end), 0) as receitas, "
+                    + " coalesce(sum(case when s.tipo = com.groupsoftware.minhasfinancas.model.enums.TipoLancamento.DESPESA then s.total else 0 end), 0) as despesas "
+                    + " from SaldoUsuario s where s.usuario.id = :idUsuario ")
+    SaldoProjection obterSaldoPorUsuario(@Param("idUsuario") Long idUsuario);
+
+    // Bloqueia os totais existentes até o fim da transação, sempre na mesma ordem, e os devolve já atualizados
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(" select s.usuario.id as idUsuario, s.tipo as tipo, s.total as total from SaldoUsuario s order by s.id ")
+    List<TotalPorTipoProjection> bloquearTotais();
+
+    // Soma sobre a linha do tipo; nenhuma linha alterada enquanto o usuário não tiver lançamento efetivado do tipo
+    @Modifying
+    @Query(" update SaldoUsuario s set s.total = s.total + :valor where s.usuario.id = :idUsuario and s.tipo = :tipo ")
+    int somarAoTotal(@Param("idUsuario") Long idUsuario, @Param("tipo") TipoLancamento tipo, @Param("valor") BigDecimal valor);
+}
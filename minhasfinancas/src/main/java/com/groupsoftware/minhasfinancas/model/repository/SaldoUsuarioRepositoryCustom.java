@@ -0,0 +1,11 @@
+package com.groupsoftware.minhasfinancas.model.repository;
+
+import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+
+import java.math.BigDecimal;
+
+public interface SaldoUsuarioRepositoryCustom {
+
+    // Cria o total do tipo já com o valor; false quando outra transação criou a mesma linha antes
+    boolean criarTotal(Long idUsuario, TipoLancamento tipo, BigDecimal valor);
+}
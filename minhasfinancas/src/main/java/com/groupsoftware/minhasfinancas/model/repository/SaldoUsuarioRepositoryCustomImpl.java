@@ -0,0 +1,19 @@
+package com.groupsoftware.minhasfinancas.model.repository;
+
+import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.math.BigDecimal;
+
+public class SaldoUsuarioRepositoryCustomImpl implements SaldoUsuarioRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public boolean criarTotal(Long idUsuario, TipoLancamento tipo, BigDecimal valor) {
+        return InsercaoChaveUnica.inserir(entityManager,
+                " insert into financas.saldo_usuario (id_usuario, tipo, total) values (?, ?, ?) ", idUsuario, tipo.name(), valor);
+    }
+}
@@ -3,10 +3,19 @@ package com.groupsoftware.minhasfinancas.model.repository;
 /*Provém os métodos padrões de consultar, alterar, deletar...*/
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.groupsoftware.minhasfinancas.model.entity.Usuario;
+import com.groupsoftware.minhasfinancas.model.projection.EmailCadastradoProjection;
 
+import javax.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     // select * from usuario where email = email
@@ -16,4 +25,28 @@ public interface UsuarioRepository extends JpaRepository<Usuario, Long> {
     boolean existsByEmail(String email);
 
     Optional<Usuario> findByEmail(String email);
+
+    @QueryHints({
+            @QueryHint(name = org.hibernate.annotations.QueryHints.FETCH_SIZE, value = "1000"),
+            @QueryHint(name = org.hibernate.annotations.QueryHints.READ_ONLY, value = "true")})
+    @Query(" select u.id as id, u.email as email from Usuario u where u.id > :id order by u.id ")
+    Stream<EmailCadastradoProjection> listarEmailsApos(@Param("id") Long id);
+
+    /* Normaliza os emails gravados antes da normalização na escrita. Os que colidiriam com o email de outro usuário
+    ficam como estão: o índice único seria violado e os dois cadastros precisam ser unificados manualmente */
+    @Transactional
+    @Modifying
+    @Query(" update Usuario u set u.email = lower(trim(u.email)) where u.email <> lower(trim(u.email)) "
+            + " and lower(trim(u.email)) not in (select lower(trim(o.email)) from Usuario o where o.id <> u.id) ")
+    int normalizarEmails();
+
+    // Emails que, normalizados, pertencem a mais de um usuário
+    @Query(" select lower(trim(u.email)) from Usuario u group by lower(trim(u.email)) having count(u.id) > 1 ")
+    List<String> listarEmailsEmConflito();
+
+    // Troca somente o hash da senha, sem carregar e regravar o usuário inteiro
+    @Transactional
+    @Modifying
+    @Query(" update Usuario u set u.senha = :senha where u.id = :id ")
+    int atualizarSenha(@Param("id") Long id, @Param("senha") String senha);
 }
@@ -0,0 +1,21 @@
+package com.groupsoftware.minhasfinancas.service;
+
+import com.groupsoftware.minhasfinancas.service.dto.ResultadoOperacao;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/*Guarda o resultado de cada operação em lote pela chave do cliente, para que a repetição de um lote não execute as operações de novo*/
+public interface ChaveIdempotenciaService {
+
+    /* Resultados ainda não expirados das chaves informadas, indexados pela chave; as chaves expiradas voltam a ficar livres */
+    Map<String, ResultadoOperacao> obterResultados(Long idUsuario, Collection<String> chaves);
+
+    /* Grava os resultados na transação do lote. Uma chave gravada ao mesmo tempo por outra requisição
+    falha no índice único e desfaz o lote inteiro */
+    void registrar(Long idUsuario, List<ResultadoOperacao> resultados);
+
+    /* Remove todas as chaves expiradas e retorna a quantidade removida */
+    int removerExpiradas();
+}
@@ -1,10 +1,13 @@
 package com.groupsoftware.minhasfinancas.service;
 
 import com.groupsoftware.minhasfinancas.model.entity.Usuario;
+import com.groupsoftware.minhasfinancas.service.dto.TokenVerificado;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
 import org.springframework.stereotype.Service;
 
+import java.util.Optional;
+
 public interface JwtService {
 
     String gerarToken(Usuario usuario);
@@ -12,6 +15,9 @@ public interface JwtService {
     // Informações que há no token
     Claims obterClaims(String token) throws ExpiredJwtException;
 
+    // Verifica assinatura e expiração uma única vez; vazio quando o token não é válido
+    Optional<TokenVerificado> verificar(String token);
+
     boolean isTokenValido(String token);
 
     String obterLoginUsuario(String token);
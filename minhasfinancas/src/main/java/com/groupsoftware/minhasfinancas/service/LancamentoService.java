@@ -2,25 +2,63 @@ package com.groupsoftware.minhasfinancas.service;
 
 import com.groupsoftware.minhasfinancas.model.entity.Lancamento;
 import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
+import com.groupsoftware.minhasfinancas.model.projection.LancamentoResumo;
+import com.groupsoftware.minhasfinancas.model.projection.SaldoProjection;
+import com.groupsoftware.minhasfinancas.model.projection.TotalPorPeriodoProjection;
+import com.groupsoftware.minhasfinancas.model.repository.CursorLancamento;
+import com.groupsoftware.minhasfinancas.service.dto.OperacaoLancamento;
+import com.groupsoftware.minhasfinancas.service.dto.Pagina;
+import com.groupsoftware.minhasfinancas.service.dto.ResultadoImportacao;
+import com.groupsoftware.minhasfinancas.service.dto.ResultadoOperacao;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public interface LancamentoService {
     Lancamento salvar(Lancamento lancamento);
 
+    // Valida todos os lançamentos antes de gravar; os inválidos são relatados sem impedir a gravação dos demais
+    ResultadoImportacao importar(List<Lancamento> lancamentos);
+
     Lancamento atualizar(Lancamento lancamento);
 
+    /* Executa as operações do usuário em uma única transação, na ordem recebida, e retorna um resultado por operação.
+    Operações recusadas não impedem as demais; chaves já executadas devolvem o resultado gravado */
+    List<ResultadoOperacao> executarLote(Long idUsuario, List<OperacaoLancamento> operacoes);
+
     void deletar(Lancamento lancamento);
 
     List<Lancamento> buscar(Lancamento lancamentoFiltro);
 
+    // Mesmo filtro de buscar, devolvendo apenas as colunas exibidas na consulta
+    List<LancamentoResumo> buscarResumos(Lancamento lancamentoFiltro);
+
+    // Página de lançamentos posteriores ao cursor; cursor nulo retorna a primeira página
+    Pagina<Lancamento> buscarPagina(Lancamento lancamentoFiltro, CursorLancamento cursor, int tamanho);
+
+    // Entrega os lançamentos do usuário um a um, sem carregar o histórico inteiro em memória
+    void exportar(Long idUsuario, Consumer<Lancamento> consumidor);
+
     void atualizarStatus(Lancamento lancamento, StatusLancamento status);
 
+    // Altera somente o status, desde que o lançamento pertença ao usuário, e retorna o lançamento atualizado
+    Lancamento atualizarStatus(Long id, Long idUsuario, StatusLancamento status);
+
+    /* Altera o status de todos os lançamentos do filtro (usuário obrigatório, ano, mês e status atual)
+    e dos IDs informados; retorna a quantidade de lançamentos alterados */
+    int atualizarStatusEmLote(Lancamento lancamentoFiltro, List<Long> ids, StatusLancamento novoStatus);
+
     void validar(Lancamento lancamento);
 
     Optional<Lancamento> obterPorId(Long id);
 
     BigDecimal obterSaldoPorUsuario(Long id);
+
+    // Totais por (ano, mes, tipo, status) do usuário entre os dois períodos, inclusive
+    List<TotalPorPeriodoProjection> obterTotaisPorPeriodo(Long idUsuario, int anoInicio, int mesInicio, int anoFim, int mesFim);
+
+    // Receitas, despesas e saldo efetivados do usuário
+    SaldoProjection obterSaldoDetalhadoPorUsuario(Long id);
 }
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.groupsoftware.minhasfinancas.service;
+
+import com.groupsoftware.minhasfinancas.model.projection.LancamentoContabil;
+import com.groupsoftware.minhasfinancas.model.projection.TotalPorPeriodoProjection;
+
+import java.util.List;
+
+/*Mantém a soma mensal dos lançamentos por usuário, tipo e status, atualizada a cada escrita de lançamento*/
+public interface ResumoMensalService {
+
+    /* Aplica a diferença entre o estado anterior e o atual de um lançamento. Anterior é nulo na inclusão e atual na exclusão */
+    void registrarMovimento(LancamentoContabil anterior, LancamentoContabil atual);
+
+    List<TotalPorPeriodoProjection> obterTotaisPorPeriodo(Long idUsuario, int anoInicio, int mesInicio, int anoFim, int mesFim);
+
+    /* Descarta e recalcula todos os resumos a partir dos lançamentos; retorna a quantidade de resumos gravados */
+    int reconstruir();
+}
@@ -0,0 +1,19 @@
+package com.groupsoftware.minhasfinancas.service;
+
+import com.groupsoftware.minhasfinancas.model.projection.LancamentoContabil;
+import com.groupsoftware.minhasfinancas.model.projection.SaldoProjection;
+import com.groupsoftware.minhasfinancas.service.dto.DivergenciaSaldo;
+
+import java.util.List;
+
+/*Mantém os totais efetivados por usuário e tipo, atualizados a cada escrita de lançamento*/
+public interface SaldoUsuarioService {
+
+    /* Aplica a diferença entre o estado anterior e o atual de um lançamento. Anterior é nulo na inclusão e atual na exclusão */
+    void registrarMovimento(LancamentoContabil anterior, LancamentoContabil atual);
+
+    SaldoProjection obterSaldo(Long idUsuario);
+
+    /* Recalcula todos os totais a partir dos lançamentos e retorna as diferenças corrigidas */
+    List<DivergenciaSaldo> reconciliar();
+}
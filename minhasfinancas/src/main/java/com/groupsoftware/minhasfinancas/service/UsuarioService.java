@@ -2,7 +2,9 @@ package com.groupsoftware.minhasfinancas.service;
 
 import com.groupsoftware.minhasfinancas.model.entity.Usuario;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 /*Vai definir os métodos para trabalhar com a entidade usuário*/
 public interface UsuarioService {
@@ -13,6 +15,12 @@ public interface UsuarioService {
      */
     Usuario autenticar(String email, String senha);
 
+    /*
+     * Igual a autenticar, mas a senha é verificada no executor de senhas, fora da thread da requisição.
+     * Usuário inexistente falha na hora; executor saturado lança RejectedExecutionException.
+     */
+    CompletableFuture<Usuario> autenticarAssincrono(String email, String senha);
+
     /* Recebe usuário sem ID -> Retorna usuário com ID */
     Usuario salvarUsuario(Usuario usuario);
 
@@ -20,4 +28,11 @@ public interface UsuarioService {
     void validarEmail(String email);
 
     Optional<Usuario> obterPorId(Long id);
+
+    /* Referência ao usuário sem consultar o banco, para uso como chave estrangeira */
+    Usuario obterReferencia(Long id);
+
+    /* Grava normalizados os emails cadastrados antes da normalização e retorna os emails que,
+    normalizados, pertencem a mais de um usuário e por isso não foram alterados */
+    List<String> normalizarEmailsCadastrados();
 }
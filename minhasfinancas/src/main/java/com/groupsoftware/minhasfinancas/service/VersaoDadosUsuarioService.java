@@ -0,0 +1,13 @@
+package com.groupsoftware.minhasfinancas.service;
+
+import java.util.Optional;
+
+/*Versão dos lançamentos e do saldo de cada usuário, que muda a cada escrita confirmada e serve de ETag nas consultas*/
+public interface VersaoDadosUsuarioService {
+
+    /* Vazio quando uma escrita recente ainda pode não estar visível nas leituras; a consulta então segue sem ETag */
+    Optional<String> obterVersao(Long idUsuario);
+
+    /* Muda a versão do usuário após o commit da transação corrente, ou imediatamente fora de uma transação */
+    void registrarAlteracao(Long idUsuario);
+}
@@ -0,0 +1,18 @@
+package com.groupsoftware.minhasfinancas.service.dto;
+
+import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.math.BigDecimal;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class DivergenciaSaldo {
+    private Long idUsuario;
+    private TipoLancamento tipo;
+    private BigDecimal registrado;
+    private BigDecimal apurado;
+}
@@ -0,0 +1,12 @@
+package com.groupsoftware.minhasfinancas.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ErroImportacao {
+    // Posição do lançamento no arquivo importado, iniciando em 1
+    private int linha;
+    private String mensagem;
+}
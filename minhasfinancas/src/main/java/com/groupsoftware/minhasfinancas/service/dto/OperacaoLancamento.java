@@ -0,0 +1,24 @@
+package com.groupsoftware.minhasfinancas.service.dto;
+
+import com.groupsoftware.minhasfinancas.model.entity.Lancamento;
+import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class OperacaoLancamento {
+    // Informada pelo cliente: a mesma chave repetida devolve o resultado já gravado, sem executar a operação de novo
+    private String chave;
+    private Tipo tipo;
+    // Lançamento alterado ou excluído; nulo na criação
+    private Long id;
+    // Dados da criação ou da atualização
+    private Lancamento lancamento;
+    // Novo status, somente em ATUALIZAR_STATUS
+    private StatusLancamento status;
+
+    public enum Tipo {
+        CRIAR, ATUALIZAR, ATUALIZAR_STATUS, DELETAR
+    }
+}
@@ -0,0 +1,15 @@
+package com.groupsoftware.minhasfinancas.service.dto;
+
+import com.groupsoftware.minhasfinancas.model.repository.CursorLancamento;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class Pagina<T> {
+    private List<T> itens;
+    // Nulo quando não há mais registros
+    private CursorLancamento proximo;
+}
@@ -0,0 +1,13 @@
+package com.groupsoftware.minhasfinancas.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class ResultadoImportacao {
+    private int importados;
+    private List<ErroImportacao> erros;
+}
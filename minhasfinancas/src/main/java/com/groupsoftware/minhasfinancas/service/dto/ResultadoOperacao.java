@@ -0,0 +1,20 @@
+package com.groupsoftware.minhasfinancas.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class ResultadoOperacao {
+    private String chave;
+    // Código HTTP que a operação teria recebido isolada: 201, 200, 204 ou 400
+    private int situacao;
+    private Long id;
+    private String mensagem;
+    // Resultado de uma execução anterior com a mesma chave
+    private boolean repetida;
+
+    public ResultadoOperacao repetida() {
+        return new ResultadoOperacao(chave, situacao, id, mensagem, true);
+    }
+}
@@ -0,0 +1,17 @@
+package com.groupsoftware.minhasfinancas.service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+// Claims de um token cuja assinatura e expiração já foram verificadas
+@Getter
+@AllArgsConstructor
+public class TokenVerificado {
+
+    private final String email;
+    private final Long idUsuario;
+    private final String nome;
+    private final Instant expiracao;
+}
@@ -0,0 +1,17 @@
+package com.groupsoftware.minhasfinancas.service.dto;
+
+import lombok.Getter;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+
+// Principal das requisições autenticadas por token: não carrega a senha do usuário
+@Getter
+public class UsuarioAutenticado extends User {
+
+    private final Long id;
+
+    public UsuarioAutenticado(Long id, String email) {
+        super(email, "", AuthorityUtils.createAuthorityList("ROLE_USER"));
+        this.id = id;
+    }
+}
@@ -0,0 +1,110 @@
+package com.groupsoftware.minhasfinancas.service.impl;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.groupsoftware.minhasfinancas.model.entity.Lancamento;
+import com.groupsoftware.minhasfinancas.model.projection.LancamentoResumo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/*
+ * Consultas de lançamentos por usuário e filtro, com a versão dos dados do usuário na chave: cada escrita confirmada
+ * muda a versão, e as consultas guardadas da versão anterior deixam de ser encontradas até expirarem.
+ * Em memória, o peso de uma consulta é a quantidade de lançamentos. Com o Redis habilitado, uma falta local
+ * ainda procura a consulta gravada por outra instância antes de ir ao banco.
+ */
+@Slf4j
+@Component
+public class CacheResumosLancamentos {
+
+    private static final String PREFIXO = "financas:lancamentos:";
+
+    private Cache<List<Object>, List<LancamentoResumo>> local;
+    private Duration expiracao;
+
+    // Nulo quando o cache compartilhado não está habilitado
+    private StringRedisTemplate redis;
+    private ObjectReader leitor;
+    private ObjectWriter escritor;
+    private Counter acertosCompartilhado;
+    private Counter faltasCompartilhado;
+
+    public CacheResumosLancamentos(ObjectMapper objectMapper,
+                                   MeterRegistry meterRegistry,
+                                   ObjectProvider<StringRedisTemplate> redis,
+                                   @Value("${cache.redis.habilitado:false}") boolean redisHabilitado,
+                                   @Value("${cache.lancamentos.peso-maximo:200000}") long pesoMaximo,
+                                   @Value("${cache.lancamentos.expiracao:PT10M}") Duration expiracao) {
+        this.local = Caffeine
+                .newBuilder()
+                .maximumWeight(pesoMaximo)
+                .weigher((List<Object> chave, List<LancamentoResumo> resumos) -> resumos.size() + 1)
+                .expireAfterWrite(expiracao)
+                .recordStats()
+                .build();
+        this.expiracao = expiracao;
+        CaffeineCacheMetrics.monitor(meterRegistry, local, "resumosLancamentos");
+
+        if (redisHabilitado) {
+            this.redis = redis.getObject();
+            TypeReference<List<LancamentoResumo>> tipo = new TypeReference<List<LancamentoResumo>>() {
+            };
+            this.leitor = objectMapper.readerFor(tipo);
+            this.escritor = objectMapper.writerFor(tipo);
+            // Os descartes do Redis aparecem nas estatísticas do próprio servidor (evicted_keys)
+            this.acertosCompartilhado = Counter.builder("cache.gets").tag("cache", "resumosLancamentosCompartilhado").tag("result", "hit").register(meterRegistry);
+            this.faltasCompartilhado = Counter.builder("cache.gets").tag("cache", "resumosLancamentosCompartilhado").tag("result", "miss").register(meterRegistry);
+        }
+    }
+
+    // Sem versão, a consulta é sempre feita e não é guardada
+    public List<LancamentoResumo> obter(Optional<String> versao, Lancamento filtro, Supplier<List<LancamentoResumo>> consulta) {
+        if (!versao.isPresent()) {
+            return consulta.get();
+        }
+        List<Object> chave = Arrays.asList(versao.get(), filtro.getAno(), filtro.getMes(), filtro.getDescricao());
+        return local.get(chave, c -> Collections.unmodifiableList(redis != null ? obterCompartilhado(c, consulta) : consulta.get()));
+    }
+
+    private List<LancamentoResumo> obterCompartilhado(List<Object> chave, Supplier<List<LancamentoResumo>> consulta) {
+        String chaveRedis = chave.stream().map(String::valueOf).collect(Collectors.joining(":", PREFIXO, ""));
+        try {
+            String json = redis.opsForValue().get(chaveRedis);
+            if (json != null) {
+                acertosCompartilhado.increment();
+                return leitor.readValue(json);
+            }
+        } catch (DataAccessException | IOException e) {
+            log.debug("Consulta {} indisponível no cache compartilhado.", chaveRedis, e);
+        }
+        faltasCompartilhado.increment();
+
+        List<LancamentoResumo> resumos = consulta.get();
+        try {
+            redis.opsForValue().set(chaveRedis, escritor.writeValueAsString(resumos), expiracao);
+        } catch (DataAccessException | IOException e) {
+            log.debug("Consulta {} não gravada no cache compartilhado.", chaveRedis, e);
+        }
+        return resumos;
+    }
+}
@@ -0,0 +1,77 @@
+package com.groupsoftware.minhasfinancas.service.impl;
+
+import com.groupsoftware.minhasfinancas.model.entity.ChaveIdempotencia;
+import com.groupsoftware.minhasfinancas.model.repository.ChaveIdempotenciaRepository;
+import com.groupsoftware.minhasfinancas.service.ChaveIdempotenciaService;
+import com.groupsoftware.minhasfinancas.service.dto.ResultadoOperacao;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class ChaveIdempotenciaServiceImpl implements ChaveIdempotenciaService {
+
+    private ChaveIdempotenciaRepository repository;
+    private Duration expiracao;
+
+    public ChaveIdempotenciaServiceImpl(ChaveIdempotenciaRepository repository,
+                                        @Value("${lote.idempotencia.expiracao:P1D}") Duration expiracao) {
+        this.repository = repository;
+        this.expiracao = expiracao;
+    }
+
+    @Override
+    // Sempre dentro da transação do lote
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Map<String, ResultadoOperacao> obterResultados(Long idUsuario, Collection<String> chaves) {
+        if (chaves.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        Instant agora = Instant.now();
+        repository.removerExpiradas(idUsuario, chaves, agora);
+        return repository
+                .buscarVigentes(idUsuario, chaves, agora)
+                .stream()
+                .map(chave -> new ResultadoOperacao(chave.getChave(), chave.getSituacao(), chave.getIdLancamento(), chave.getMensagem(), true))
+                .collect(Collectors.toMap(ResultadoOperacao::getChave, Function.identity()));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(Long idUsuario, List<ResultadoOperacao> resultados) {
+        if (resultados.isEmpty()) {
+            return;
+        }
+        Instant expiraEm = Instant.now().plus(expiracao);
+        repository.saveAll(resultados
+                .stream()
+                .map(resultado -> ChaveIdempotencia
+                        .builder()
+                        .idUsuario(idUsuario)
+                        .chave(resultado.getChave())
+                        .situacao((short) resultado.getSituacao())
+                        .idLancamento(resultado.getId())
+                        .mensagem(resultado.getMensagem())
+                        .expiraEm(expiraEm)
+                        .build())
+                .collect(Collectors.toList()));
+        // Envia os INSERTs agora para que a violação do índice único chegue a quem chamou, e não só no commit
+        repository.flush();
+    }
+
+    @Override
+    @Transactional
+    public int removerExpiradas() {
+        return repository.removerExpiradas(Instant.now());
+    }
+}
@@ -0,0 +1,110 @@
+package com.groupsoftware.minhasfinancas.service.impl;
+
+import com.google.common.base.Charsets;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.groupsoftware.minhasfinancas.model.entity.Usuario;
+import com.groupsoftware.minhasfinancas.model.projection.EmailCadastradoProjection;
+import com.groupsoftware.minhasfinancas.model.repository.UsuarioRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/*
+ * Filtro de Bloom com os emails cadastrados: responde sem ir ao banco quando um email certamente não está cadastrado.
+ * Pode dar falso positivo (o banco é consultado), mas não falso negativo para emails já sincronizados ou registrados aqui.
+ * Cadastros feitos por outras instâncias entram na sincronização seguinte. Ids IDENTITY são confirmados fora de ordem,
+ * então cada sincronização relê também os últimos ids já lidos: um id menor confirmado depois de um maior ainda é incluído.
+ */
+@Slf4j
+@Component
+public class FiltroEmailsCadastrados {
+
+    private static final double TAXA_FALSO_POSITIVO = 0.01;
+
+    private UsuarioRepository repository;
+    private long capacidade;
+    private long margemIds;
+    private boolean habilitado;
+
+    // Nulo até a primeira carga: enquanto isso, todo email é tratado como possivelmente cadastrado
+    private volatile BloomFilter<String> filtro;
+    private volatile long ultimoId;
+
+    public FiltroEmailsCadastrados(UsuarioRepository repository,
+                                   @Value("${seguranca.filtro-email.capacidade:1000000}") long capacidade,
+                                   @Value("${seguranca.filtro-email.margem-ids:1000}") long margemIds,
+                                   @Value("${seguranca.filtro-email.habilitado:true}") boolean habilitado) {
+        this.repository = repository;
+        this.capacidade = capacidade;
+        this.margemIds = margemIds;
+        this.habilitado = habilitado;
+    }
+
+    // Recebe o email já normalizado
+    public boolean certamenteNaoCadastrado(String email) {
+        BloomFilter<String> atual = filtro;
+        return atual != null && !atual.mightContain(email);
+    }
+
+    public void registrar(String email) {
+        BloomFilter<String> atual = filtro;
+        if (atual != null) {
+            atual.put(email);
+        }
+    }
+
+    // A primeira execução, ao subir a aplicação, faz a carga completa
+    @Scheduled(fixedDelayString = "${seguranca.filtro-email.sincronizacao:5000}")
+    @Transactional(readOnly = true)
+    public void sincronizar() {
+        if (!habilitado) {
+            return;
+        }
+        BloomFilter<String> atual = filtro;
+        if (atual == null) {
+            recarregar();
+            return;
+        }
+        long lido = ultimoId;
+        ultimoId = Math.max(lido, incluir(atual, Math.max(0L, lido - margemIds)));
+    }
+
+    // Reconstrói o filtro do zero: cobre ids gravados fora de ordem e corrige a taxa de falso positivo
+    @Scheduled(fixedDelayString = "${seguranca.filtro-email.recarga:3600000}", initialDelayString = "${seguranca.filtro-email.recarga:3600000}")
+    @Transactional(readOnly = true)
+    public void recarregar() {
+        if (!habilitado) {
+            return;
+        }
+        BloomFilter<String> novo = BloomFilter.create(Funnels.stringFunnel(Charsets.UTF_8), capacidade, TAXA_FALSO_POSITIVO);
+        long id = incluir(novo, 0L);
+        filtro = novo;
+        ultimoId = id;
+
+        long quantidade = novo.approximateElementCount();
+        if (quantidade > capacidade) {
+            log.warn("Filtro de emails com {} emails para capacidade de {}: aumente seguranca.filtro-email.capacidade.",
+                    quantidade, capacidade);
+        }
+    }
+
+    private long incluir(BloomFilter<String> destino, long aposId) {
+        long maiorId = aposId;
+        try (Stream<EmailCadastradoProjection> emails = repository.listarEmailsApos(aposId)) {
+            Iterator<EmailCadastradoProjection> iterador = emails.iterator();
+            while (iterador.hasNext()) {
+                EmailCadastradoProjection email = iterador.next();
+                // Normalizado como nas consultas, mesmo que a linha ainda não tenha sido migrada
+                destino.put(Usuario.normalizarEmail(email.getEmail()));
+                maiorId = Math.max(maiorId, email.getId());
+            }
+        }
+        return maiorId;
+    }
+}
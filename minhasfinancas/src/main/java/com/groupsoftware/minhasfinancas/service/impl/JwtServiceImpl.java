@@ -1,21 +1,35 @@
 package com.groupsoftware.minhasfinancas.service.impl;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.groupsoftware.minhasfinancas.model.entity.Usuario;
 import com.groupsoftware.minhasfinancas.service.JwtService;
+import com.groupsoftware.minhasfinancas.service.dto.TokenVerificado;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 
 @Service
 public class JwtServiceImpl implements JwtService {
@@ -26,6 +40,23 @@ public class JwtServiceImpl implements JwtService {
     @Value("${jwt.chave-assinatura}")
     private String chaveAssinatura;
 
+    private final Cache<String, TokenVerificado> tokensVerificados;
+    private final Timer assinatura;
+    private final Timer verificacao;
+
+    public JwtServiceImpl(MeterRegistry meterRegistry,
+                          @Value("${jwt.cache-verificacao.tamanho-maximo:10000}") long tamanhoMaximo) {
+        this.tokensVerificados = Caffeine
+                .newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfter(new ExpiracaoDoToken())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, tokensVerificados, "tokensVerificados");
+        this.assinatura = Timer.builder("financas.jwt").tag("operacao", "assinar").register(meterRegistry);
+        this.verificacao = Timer.builder("financas.jwt").tag("operacao", "verificar").register(meterRegistry);
+    }
+
     @Override
     public String gerarToken(Usuario usuario) {
         long exp = Long.valueOf(expiracao);
@@ -36,7 +67,7 @@ public class JwtServiceImpl implements JwtService {
         String horaExpiracaoToken = dataHoraExpiracao.toLocalTime()
                 .format(DateTimeFormatter.ofPattern("HH:mm"));
 
-        String token = Jwts
+        String token = assinatura.record(() -> Jwts
                 .builder()
                 .setExpiration(data)
                 .setSubject(usuario.getEmail())
@@ -44,32 +75,52 @@ public class JwtServiceImpl implements JwtService {
                 .claim("nome", usuario.getNome())
                 .claim("horaExpiracao", horaExpiracaoToken)
                 .signWith(SignatureAlgorithm.HS512, chaveAssinatura)
-                .compact();
+                .compact());
 
         return token;
     }
 
     @Override
     public Claims obterClaims(String token) throws ExpiredJwtException {
-        return Jwts
+        return verificacao.record(() -> Jwts
                 .parser()
                 .setSigningKey(chaveAssinatura)
                 .parseClaimsJws(token)
-                .getBody();
+                .getBody());
     }
 
     @Override
-    public boolean isTokenValido(String token) {
+    public Optional<TokenVerificado> verificar(String token) {
+        // Tokens já verificados são reconhecidos pelo hash e dispensam a validação HMAC até expirarem
+        String hash = hash(token);
+        TokenVerificado verificado = tokensVerificados.getIfPresent(hash);
+        if (verificado != null) {
+            return Optional.of(verificado);
+        }
+
         try {
+            // O parser do jjwt já rejeita tokens expirados
             Claims claims = obterClaims(token);
-            java.util.Date dataEx = claims.getExpiration();
-            LocalDateTime dataExpiracao = dataEx.toInstant()
-                    .atZone(ZoneId.systemDefault()).toLocalDateTime();
-            boolean dataHoraAtualIsAfterDataExpiracao = LocalDateTime.now().isAfter(dataExpiracao);
-            return !dataHoraAtualIsAfterDataExpiracao;
-        } catch (ExpiredJwtException e) {
-            return false;
+            if (claims.getExpiration() == null) {
+                return Optional.empty();
+            }
+            Number idUsuario = claims.get("userid", Number.class);
+            verificado = new TokenVerificado(
+                    claims.getSubject(),
+                    idUsuario != null ? idUsuario.longValue() : null,
+                    claims.get("nome", String.class),
+                    claims.getExpiration().toInstant());
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
         }
+
+        tokensVerificados.put(hash, verificado);
+        return Optional.of(verificado);
+    }
+
+    @Override
+    public boolean isTokenValido(String token) {
+        return verificar(token).isPresent();
     }
 
     @Override
@@ -77,4 +128,32 @@ public class JwtServiceImpl implements JwtService {
         Claims claims = obterClaims(token);
         return claims.getSubject();
     }
-}
\ No newline at end of file
+
+    private static String hash(String token) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder().encodeToString(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Cada entrada do cache vive apenas até a expiração do próprio token
+    private static class ExpiracaoDoToken implements Expiry<String, TokenVerificado> {
+
+        @Override
+        public long expireAfterCreate(String hash, TokenVerificado token, long currentTime) {
+            return Math.max(0, TimeUnit.MILLISECONDS.toNanos(token.getExpiracao().toEpochMilli() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String hash, TokenVerificado token, long currentTime, long currentDuration) {
+            return expireAfterCreate(hash, token, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String hash, TokenVerificado token, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -4,25 +4,68 @@ import com.groupsoftware.minhasfinancas.exception.RegraNegocioException;
 import com.groupsoftware.minhasfinancas.model.entity.Lancamento;
 import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
 import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+import com.groupsoftware.minhasfinancas.model.projection.LancamentoContabil;
+import com.groupsoftware.minhasfinancas.model.projection.LancamentoResumo;
+import com.groupsoftware.minhasfinancas.model.projection.SaldoProjection;
+import com.groupsoftware.minhasfinancas.model.projection.TotalPorPeriodoProjection;
+import com.groupsoftware.minhasfinancas.model.repository.CursorLancamento;
 import com.groupsoftware.minhasfinancas.model.repository.LancamentoRepository;
+import com.groupsoftware.minhasfinancas.model.repository.LancamentoSpecifications;
+import com.groupsoftware.minhasfinancas.service.ChaveIdempotenciaService;
 import com.groupsoftware.minhasfinancas.service.LancamentoService;
-import org.springframework.data.domain.Example;
-import org.springframework.data.domain.ExampleMatcher;
+import com.groupsoftware.minhasfinancas.service.ResumoMensalService;
+import com.groupsoftware.minhasfinancas.service.SaldoUsuarioService;
+import com.groupsoftware.minhasfinancas.service.VersaoDadosUsuarioService;
+import com.groupsoftware.minhasfinancas.service.dto.ErroImportacao;
+import com.groupsoftware.minhasfinancas.service.dto.OperacaoLancamento;
+import com.groupsoftware.minhasfinancas.service.dto.Pagina;
+import com.groupsoftware.minhasfinancas.service.dto.ResultadoImportacao;
+import com.groupsoftware.minhasfinancas.service.dto.ResultadoOperacao;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service // Garantir que estará dentro do container de injeção de dependências como serviço
 public class LancamentoServiceImpl implements LancamentoService {
+    // Igual a hibernate.jdbc.batch_size e ao allocationSize da sequência de lançamentos
+    private static final int TAMANHO_LOTE = 50;
+    // Ids por UPDATE na atualização de status em lote, abaixo do limite de parâmetros por comando do PostgreSQL
+    private static final int IDS_POR_ATUALIZACAO = 1000;
 
     private LancamentoRepository repository;
+    private SaldoUsuarioService saldoUsuarioService;
+    private ResumoMensalService resumoMensalService;
+    private VersaoDadosUsuarioService versaoDadosUsuarioService;
+    private ChaveIdempotenciaService chaveIdempotenciaService;
+    private MeterRegistry meterRegistry;
 
-    public LancamentoServiceImpl(LancamentoRepository repository) {
+    public LancamentoServiceImpl(LancamentoRepository repository, SaldoUsuarioService saldoUsuarioService, ResumoMensalService resumoMensalService,
+                                 VersaoDadosUsuarioService versaoDadosUsuarioService, ChaveIdempotenciaService chaveIdempotenciaService,
+                                 MeterRegistry meterRegistry) {
         this.repository = repository;
+        this.saldoUsuarioService = saldoUsuarioService;
+        this.resumoMensalService = resumoMensalService;
+        this.versaoDadosUsuarioService = versaoDadosUsuarioService;
+        this.chaveIdempotenciaService = chaveIdempotenciaService;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
@@ -30,7 +73,46 @@ public class LancamentoServiceImpl implements LancamentoService {
     public Lancamento salvar(Lancamento lancamento) {
         validar(lancamento);
         lancamento.setStatus(StatusLancamento.PENDENTE);
-        return repository.save(lancamento);
+        Lancamento lancamentoSalvo = repository.save(lancamento);
+        registrarMovimento(null, LancamentoContabil.de(lancamentoSalvo));
+        return lancamentoSalvo;
+    }
+
+    @Override
+    @Transactional
+    public ResultadoImportacao importar(List<Lancamento> lancamentos) {
+        List<ErroImportacao> erros = new ArrayList<>();
+        List<Lancamento> validos = new ArrayList<>();
+        for (int i = 0; i < lancamentos.size(); i++) {
+            Lancamento lancamento = lancamentos.get(i);
+            try {
+                validar(lancamento);
+                // Assim como em salvar, entram pendentes e portanto não alteram o saldo
+                lancamento.setStatus(StatusLancamento.PENDENTE);
+                validos.add(lancamento);
+            } catch (RegraNegocioException e) {
+                erros.add(new ErroImportacao(i + 1, e.getMessage()));
+            }
+        }
+
+        for (int inicio = 0; inicio < validos.size(); inicio += TAMANHO_LOTE) {
+            List<Lancamento> lote = validos.subList(inicio, Math.min(inicio + TAMANHO_LOTE, validos.size()));
+            repository.saveAll(lote);
+            // Envia o lote de INSERTs e libera as entidades já gravadas do contexto de persistência
+            repository.flush();
+            lote.forEach(repository::desanexar);
+        }
+
+        // Um movimento por mês, tipo e status do arquivo, não um por lançamento
+        validos.stream()
+                .collect(Collectors.groupingBy(
+                        lancamento -> Arrays.asList(lancamento.getUsuario().getId(), lancamento.getAno(), lancamento.getMes(), lancamento.getTipo()),
+                        LinkedHashMap::new,
+                        Collectors.reducing(BigDecimal.ZERO, Lancamento::getValor, BigDecimal::add)))
+                .forEach((chave, total) -> registrarMovimento(null, new LancamentoContabil((Long) chave.get(0), (Integer) chave.get(1),
+                        (Integer) chave.get(2), (TipoLancamento) chave.get(3), StatusLancamento.PENDENTE, total)));
+
+        return new ResultadoImportacao(validos.size(), erros);
     }
 
     @Override
@@ -38,30 +120,257 @@ public class LancamentoServiceImpl implements LancamentoService {
     public Lancamento atualizar(Lancamento lancamento) {
         Objects.requireNonNull(lancamento.getId()); // O lançamento só é atualizado se já existir
         validar(lancamento);
-        return repository.save(lancamento);
+        LancamentoContabil anterior = obterSituacaoDoUsuario(lancamento.getId(), lancamento.getUsuario().getId());
+        repository.atualizarDados(lancamento.getId(), lancamento.getUsuario().getId(), lancamento.getDescricao(),
+                lancamento.getMes(), lancamento.getAno(), lancamento.getValor(), lancamento.getTipo(), lancamento.getStatus());
+        registrarMovimento(anterior, LancamentoContabil.de(lancamento));
+        return lancamento;
+    }
+
+    @Override
+    @Transactional
+    public List<ResultadoOperacao> executarLote(Long idUsuario, List<OperacaoLancamento> operacoes) {
+        Map<String, ResultadoOperacao> resultadosPorChave = new HashMap<>(chaveIdempotenciaService.obterResultados(idUsuario,
+                operacoes.stream().map(OperacaoLancamento::getChave).collect(Collectors.toSet())));
+
+        Set<Long> ids = operacoes
+                .stream()
+                .filter(operacao -> !resultadosPorChave.containsKey(operacao.getChave()))
+                .map(OperacaoLancamento::getId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        /* Como na atualização de status em lote, os lançamentos ficam bloqueados na ordem dos ids antes de lidos:
+        o estado anterior de cada um, base dos movimentos, não muda até o commit. Os de outro usuário nem são
+        bloqueados e são tratados como inexistentes */
+        List<Long> bloqueados = ids.isEmpty() ? Collections.emptyList() : repository.bloquearIds(Specification
+                .where(LancamentoSpecifications.doUsuario(idUsuario))
+                .and(LancamentoSpecifications.comIds(ids)));
+        Map<Long, Lancamento> lancamentos = repository
+                .findAllById(bloqueados)
+                .stream()
+                .collect(Collectors.toMap(Lancamento::getId, Function.identity()));
+
+        Map<List<Object>, BigDecimal> movimentos = new LinkedHashMap<>();
+        List<ResultadoOperacao> executadas = new ArrayList<>();
+        List<ResultadoOperacao> resultados = new ArrayList<>(operacoes.size());
+        for (OperacaoLancamento operacao : operacoes) {
+            ResultadoOperacao resultado = resultadosPorChave.get(operacao.getChave());
+            if (resultado == null) {
+                resultado = executar(operacao, idUsuario, lancamentos, movimentos);
+                resultadosPorChave.put(operacao.getChave(), resultado.repetida());
+                executadas.add(resultado);
+            }
+            resultados.add(resultado);
+        }
+
+        // INSERTs, UPDATEs e DELETEs enviados em lotes JDBC, agrupados por tipo de comando
+        repository.flush();
+
+        // Como na importação, um movimento por mês, tipo e status alterados, não um por operação
+        movimentos.forEach((chave, total) -> {
+            if (total.signum() != 0) {
+                registrarMovimento(null, new LancamentoContabil((Long) chave.get(0), (Integer) chave.get(1), (Integer) chave.get(2),
+                        (TipoLancamento) chave.get(3), (StatusLancamento) chave.get(4), total));
+            }
+        });
+
+        chaveIdempotenciaService.registrar(idUsuario, executadas);
+        return resultados;
+    }
+
+    /* Altera apenas as entidades gerenciadas: os comandos só chegam ao banco no flush do lote.
+    Nenhuma exceção de regra de negócio sai daqui, para não marcar a transação do lote para rollback */
+    private ResultadoOperacao executar(OperacaoLancamento operacao, Long idUsuario, Map<Long, Lancamento> lancamentos,
+                                       Map<List<Object>, BigDecimal> movimentos) {
+        try {
+            if (operacao.getTipo() == OperacaoLancamento.Tipo.CRIAR) {
+                Lancamento novo = dadosDe(operacao);
+                validar(novo);
+                if (!novo.getUsuario().getId().equals(idUsuario)) {
+                    throw new RegraNegocioException("Usuário não encontrado para o ID informado.");
+                }
+                novo.setStatus(StatusLancamento.PENDENTE);
+                Lancamento lancamentoSalvo = repository.save(novo);
+                acumularMovimento(movimentos, null, LancamentoContabil.de(lancamentoSalvo));
+                return new ResultadoOperacao(operacao.getChave(), 201, lancamentoSalvo.getId(), null, false);
+            }
+
+            Lancamento lancamento = Optional
+                    .ofNullable(operacao.getId())
+                    .map(lancamentos::get)
+                    .orElseThrow(() -> new RegraNegocioException("Lançamento não encontrado na base de dados."));
+            LancamentoContabil anterior = LancamentoContabil.de(lancamento);
+            switch (operacao.getTipo()) {
+                case ATUALIZAR:
+                    Lancamento dados = dadosDe(operacao);
+                    validar(dados);
+                    if (!dados.getUsuario().getId().equals(idUsuario)) {
+                        throw new RegraNegocioException("Lançamento não encontrado na base de dados.");
+                    }
+                    // Status ausente ou desconhecido chega nulo da conversão e não substitui o atual
+                    if (dados.getStatus() == null) {
+                        throw new RegraNegocioException("Informe um status válido para o lançamento.");
+                    }
+                    lancamento.setDescricao(dados.getDescricao());
+                    lancamento.setMes(dados.getMes());
+                    lancamento.setAno(dados.getAno());
+                    lancamento.setValor(dados.getValor());
+                    lancamento.setTipo(dados.getTipo());
+                    lancamento.setStatus(dados.getStatus());
+                    acumularMovimento(movimentos, anterior, LancamentoContabil.de(lancamento));
+                    return new ResultadoOperacao(operacao.getChave(), 200, lancamento.getId(), null, false);
+                case ATUALIZAR_STATUS:
+                    if (operacao.getStatus() == null) {
+                        throw new RegraNegocioException("Informe o novo status do lançamento.");
+                    }
+                    lancamento.setStatus(operacao.getStatus());
+                    acumularMovimento(movimentos, anterior, LancamentoContabil.de(lancamento));
+                    return new ResultadoOperacao(operacao.getChave(), 200, lancamento.getId(), null, false);
+                default:
+                    repository.delete(lancamento);
+                    // Operações seguintes sobre o mesmo lançamento o encontram excluído
+                    lancamentos.remove(lancamento.getId());
+                    acumularMovimento(movimentos, anterior, null);
+                    return new ResultadoOperacao(operacao.getChave(), 204, lancamento.getId(), null, false);
+            }
+        } catch (RegraNegocioException e) {
+            return new ResultadoOperacao(operacao.getChave(), 400, operacao.getId(), e.getMessage(), false);
+        }
+    }
+
+    private static Lancamento dadosDe(OperacaoLancamento operacao) {
+        return Optional
+                .ofNullable(operacao.getLancamento())
+                .orElseThrow(() -> new RegraNegocioException("Informe os dados do lançamento."));
+    }
+
+    // Soma a diferença entre o estado atual e o anterior no total do mês, tipo e status de cada um
+    private static void acumularMovimento(Map<List<Object>, BigDecimal> movimentos, LancamentoContabil anterior, LancamentoContabil atual) {
+        if (anterior != null) {
+            movimentos.merge(Arrays.asList(anterior.getIdUsuario(), anterior.getAno(), anterior.getMes(), anterior.getTipo(), anterior.getStatus()),
+                    anterior.getValor().negate(), BigDecimal::add);
+        }
+        if (atual != null) {
+            movimentos.merge(Arrays.asList(atual.getIdUsuario(), atual.getAno(), atual.getMes(), atual.getTipo(), atual.getStatus()),
+                    atual.getValor(), BigDecimal::add);
+        }
     }
 
     @Override
     @Transactional
     public void deletar(Lancamento lancamento) {
         Objects.requireNonNull(lancamento.getId());
+        LancamentoContabil anterior = repository.obterSituacaoContabil(lancamento.getId()).orElse(null);
         repository.delete(lancamento);
+        registrarMovimento(anterior, null);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<Lancamento> buscar(Lancamento lancamentoFiltro) {
-        Example example = Example.of(lancamentoFiltro, ExampleMatcher.matching().withIgnoreCase().withStringMatcher(ExampleMatcher.StringMatcher.CONTAINING));
-        return repository.findAll(example);
+        return repository.findAll(filtroDe(lancamentoFiltro), Sort.by("ano", "mes", "id"));
     }
 
     @Override
+    @Transactional(readOnly = true)
+    public List<LancamentoResumo> buscarResumos(Lancamento lancamentoFiltro) {
+        return repository.buscarResumos(filtroDe(lancamentoFiltro));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Pagina<Lancamento> buscarPagina(Lancamento lancamentoFiltro, CursorLancamento cursor, int tamanho) {
+        // Um registro além do tamanho indica que existe uma próxima página
+        List<Lancamento> lancamentos = repository.buscarApos(filtroDe(lancamentoFiltro), cursor, tamanho + 1);
+        if (lancamentos.size() <= tamanho) {
+            return new Pagina<>(lancamentos, null);
+        }
+        List<Lancamento> itens = new ArrayList<>(lancamentos.subList(0, tamanho));
+        return new Pagina<>(itens, CursorLancamento.de(itens.get(tamanho - 1)));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void exportar(Long idUsuario, Consumer<Lancamento> consumidor) {
+        try (Stream<Lancamento> lancamentos = repository.listarPorUsuario(idUsuario)) {
+            lancamentos.forEach(lancamento -> {
+                consumidor.accept(lancamento);
+                repository.desanexar(lancamento);
+            });
+        }
+    }
+
+    private Specification<Lancamento> filtroDe(Lancamento lancamentoFiltro) {
+        Long idUsuario = lancamentoFiltro.getUsuario() != null ? lancamentoFiltro.getUsuario().getId() : null;
+        return Specification
+                .where(LancamentoSpecifications.doUsuario(idUsuario))
+                .and(LancamentoSpecifications.doAno(lancamentoFiltro.getAno()))
+                .and(LancamentoSpecifications.doMes(lancamentoFiltro.getMes()))
+                .and(LancamentoSpecifications.comDescricao(lancamentoFiltro.getDescricao()));
+    }
+
+    @Override
+    @Transactional
     public void atualizarStatus(Lancamento lancamento, StatusLancamento status) {
         lancamento.setStatus(status);
         atualizar(lancamento);
     }
 
     @Override
+    @Transactional
+    public Lancamento atualizarStatus(Long id, Long idUsuario, StatusLancamento status) {
+        LancamentoContabil anterior = obterSituacaoDoUsuario(id, idUsuario);
+        repository.atualizarStatus(id, idUsuario, status);
+        registrarMovimento(anterior, anterior.comStatus(status));
+        // Lido depois do UPDATE, ainda bloqueado: a resposta traz o lançamento como ficou gravado
+        return repository.findById(id).get();
+    }
+
+    @Override
+    @Transactional
+    public int atualizarStatusEmLote(Lancamento lancamentoFiltro, List<Long> ids, StatusLancamento novoStatus) {
+        Objects.requireNonNull(lancamentoFiltro.getUsuario()); // Nunca atualiza lançamentos de outros usuários
+        Specification<Lancamento> filtro = filtroDe(lancamentoFiltro)
+                .and(LancamentoSpecifications.comIds(ids))
+                .and(LancamentoSpecifications.comStatus(lancamentoFiltro.getStatus()))
+                // Os que já estão no novo status não são alterados nem movem o saldo
+                .and(LancamentoSpecifications.semStatus(novoStatus));
+
+        /* Os lançamentos do filtro ficam bloqueados até o commit: os totais lidos antes do UPDATE são exatamente
+        os das linhas alteradas, mesmo com outras escritas concorrentes. */
+        List<Long> bloqueados = repository.bloquearIds(filtro);
+        int atualizados = 0;
+        for (int inicio = 0; inicio < bloqueados.size(); inicio += IDS_POR_ATUALIZACAO) {
+            Specification<Lancamento> parte = LancamentoSpecifications.comIds(
+                    bloqueados.subList(inicio, Math.min(inicio + IDS_POR_ATUALIZACAO, bloqueados.size())));
+            // Totais por tipo e status lidos antes do UPDATE: o saldo é ajustado por grupo, não por lançamento
+            List<LancamentoContabil> anteriores = repository.obterTotaisContabeis(parte);
+            atualizados += repository.atualizarStatus(parte, novoStatus);
+            anteriores.forEach(anterior -> registrarMovimento(anterior, anterior.comStatus(novoStatus)));
+        }
+        return atualizados;
+    }
+
+    // O saldo e o resumo mensal acompanham cada escrita, na mesma transação; a versão do usuário muda após o commit
+    private void registrarMovimento(LancamentoContabil anterior, LancamentoContabil atual) {
+        saldoUsuarioService.registrarMovimento(anterior, atual);
+        resumoMensalService.registrarMovimento(anterior, atual);
+        Optional.ofNullable(anterior != null ? anterior : atual)
+                .map(LancamentoContabil::getIdUsuario)
+                .ifPresent(versaoDadosUsuarioService::registrarAlteracao);
+    }
+
+    /* Leitura pela chave primária que serve tanto ao ajuste do saldo quanto à verificação do dono;
+    lançamentos de outro usuário são tratados como inexistentes. */
+    private LancamentoContabil obterSituacaoDoUsuario(Long id, Long idUsuario) {
+        return repository
+                .obterSituacaoContabil(id)
+                .filter(situacao -> situacao.getIdUsuario().equals(idUsuario))
+                .orElseThrow(() -> new RegraNegocioException("Lançamento não encontrado na base de dados."));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
     public Optional<Lancamento> obterPorId(Long id) {
         return repository.findById(id);
     }
@@ -69,17 +378,19 @@ public class LancamentoServiceImpl implements LancamentoService {
     @Override
     @Transactional(readOnly = true)
     public BigDecimal obterSaldoPorUsuario(Long id) {
-        BigDecimal receitas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(id, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO);
-        BigDecimal despesas = repository.obterSaldoPorTipoLancamentoEUsuarioEStatus(id, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO);
+        return obterSaldoDetalhadoPorUsuario(id).getSaldo();
+    }
 
-        if (receitas == null) {
-            receitas = BigDecimal.ZERO;
-        }
-        if (despesas == null) {
-            despesas = BigDecimal.ZERO;
-        }
+    @Override
+    @Transactional(readOnly = true)
+    public List<TotalPorPeriodoProjection> obterTotaisPorPeriodo(Long idUsuario, int anoInicio, int mesInicio, int anoFim, int mesFim) {
+        return resumoMensalService.obterTotaisPorPeriodo(idUsuario, anoInicio, mesInicio, anoFim, mesFim);
+    }
 
-        return receitas.subtract(despesas);
+    @Override
+    @Transactional(readOnly = true)
+    public SaldoProjection obterSaldoDetalhadoPorUsuario(Long id) {
+        return saldoUsuarioService.obterSaldo(id);
     }
 
     @Override
@@ -87,28 +398,34 @@ public class LancamentoServiceImpl implements LancamentoService {
 
         // Campo de descrição é obrigatório
         if (lancamento.getDescricao() == null || lancamento.getDescricao().trim().equals("")) {
-            throw new RegraNegocioException("Informe uma Descrição válida.");
+            throw regraViolada("descricao", "Informe uma Descrição válida.");
         }
 
         if (lancamento.getMes() == null || lancamento.getMes() < 1 || lancamento.getMes() > 12) {
-            throw new RegraNegocioException("Informe um Mês válido.");
+            throw regraViolada("mes", "Informe um Mês válido.");
         }
 
         if (lancamento.getAno() == null || lancamento.getAno().toString().length() != 4) {
-            throw new RegraNegocioException("Informe um Ano válido.");
+            throw regraViolada("ano", "Informe um Ano válido.");
         }
 
         if (lancamento.getUsuario() == null || lancamento.getUsuario().getId() == null) {
-            throw new RegraNegocioException("Informe um Usuário.");
+            throw regraViolada("usuario", "Informe um Usuário.");
         }
 
         // Lançamentos precisam ser de no mínimo R$0,01
         if (lancamento.getValor() == null || lancamento.getValor().compareTo(BigDecimal.ZERO) < 1) {
-            throw new RegraNegocioException("Informe um Valor válido.");
+            throw regraViolada("valor", "Informe um Valor válido.");
         }
 
         if (lancamento.getTipo() == null) {
-            throw new RegraNegocioException("Informe um tipo de Lançamento.");
+            throw regraViolada("tipo", "Informe um tipo de Lançamento.");
         }
     }
-}
\ No newline at end of file
+
+    // Conta as falhas de validação por regra e devolve a exceção a ser lançada
+    private RegraNegocioException regraViolada(String regra, String mensagem) {
+        meterRegistry.counter("financas.lancamento.validacao.falhas", "regra", regra).increment();
+        return new RegraNegocioException(mensagem);
+    }
+}
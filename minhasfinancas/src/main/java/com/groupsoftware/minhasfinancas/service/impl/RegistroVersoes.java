@@ -0,0 +1,20 @@
+package com.groupsoftware.minhasfinancas.service.impl;
+
+import lombok.Value;
+
+/* Onde fica o número de versão dos dados de cada usuário: em memória nesta instância ou no Redis, compartilhado entre instâncias */
+public interface RegistroVersoes {
+
+    Versao obter(Long idUsuario);
+
+    // O novo número é sempre maior que o anterior e nunca menor que o instante atual, em milissegundos
+    void incrementar(Long idUsuario);
+
+    /* A origem muda quando as versões anteriores se perdem (reinício da instância ou do Redis),
+    para que nenhuma versão antiga volte a ser considerada atual */
+    @Value
+    class Versao {
+        String origem;
+        long numero;
+    }
+}
@@ -0,0 +1,27 @@
+package com.groupsoftware.minhasfinancas.service.impl;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/* Escritas feitas em outra instância não mudam as versões desta: com várias instâncias, use o Redis ou afinidade de sessão */
+@Component
+@ConditionalOnProperty(name = "cache.redis.habilitado", havingValue = "false", matchIfMissing = true)
+public class RegistroVersoesMemoria implements RegistroVersoes {
+
+    private final String origem = Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36);
+    private final ConcurrentMap<Long, Long> versoes = new ConcurrentHashMap<>();
+
+    @Override
+    public Versao obter(Long idUsuario) {
+        return new Versao(origem, versoes.getOrDefault(idUsuario, 0L));
+    }
+
+    @Override
+    public void incrementar(Long idUsuario) {
+        versoes.merge(idUsuario, System.currentTimeMillis(), (anterior, agora) -> Math.max(anterior + 1, agora));
+    }
+}
@@ -0,0 +1,52 @@
+package com.groupsoftware.minhasfinancas.service.impl;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * Versões compartilhadas entre as instâncias, uma chave sem expiração por usuário.
+ * A origem também fica no Redis: se os dados do Redis se perderem, uma nova origem é criada na leitura seguinte.
+ * No servidor, use maxmemory-policy volatile-lru para que somente as consultas em cache (com TTL) sejam descartadas.
+ */
+@Component
+@ConditionalOnProperty(name = "cache.redis.habilitado", havingValue = "true")
+public class RegistroVersoesRedis implements RegistroVersoes {
+
+    private static final String CHAVE_ORIGEM = "financas:versao:origem";
+    private static final String PREFIXO = "financas:versao:";
+
+    private static final RedisScript<List> OBTER = new DefaultRedisScript<>(
+            "local origem = redis.call('GET', KEYS[1]) "
+                    + "if not origem then origem = ARGV[1] redis.call('SET', KEYS[1], origem) end "
+                    + "return {origem, redis.call('GET', KEYS[2]) or '0'}", List.class);
+
+    private static final RedisScript<Long> INCREMENTAR = new DefaultRedisScript<>(
+            "local numero = math.max(tonumber(redis.call('GET', KEYS[1]) or '0') + 1, tonumber(ARGV[1])) "
+                    + "redis.call('SET', KEYS[1], string.format('%d', numero)) "
+                    + "return numero", Long.class);
+
+    private StringRedisTemplate redis;
+
+    public RegistroVersoesRedis(StringRedisTemplate redis) {
+        this.redis = redis;
+    }
+
+    @Override
+    public Versao obter(Long idUsuario) {
+        List<?> resultado = redis.execute(OBTER, Arrays.asList(CHAVE_ORIGEM, PREFIXO + idUsuario), Long.toString(ThreadLocalRandom.current().nextLong() & Long.MAX_VALUE, 36));
+        return new Versao((String) resultado.get(0), Long.parseLong((String) resultado.get(1)));
+    }
+
+    @Override
+    public void incrementar(Long idUsuario) {
+        redis.execute(INCREMENTAR, Collections.singletonList(PREFIXO + idUsuario), Long.toString(System.currentTimeMillis()));
+    }
+}
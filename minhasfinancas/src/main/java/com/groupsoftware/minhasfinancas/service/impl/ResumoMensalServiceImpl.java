@@ -0,0 +1,75 @@
+package com.groupsoftware.minhasfinancas.service.impl;
+
+import com.groupsoftware.minhasfinancas.model.projection.LancamentoContabil;
+import com.groupsoftware.minhasfinancas.model.projection.TotalPorPeriodoProjection;
+import com.groupsoftware.minhasfinancas.model.repository.ResumoMensalRepository;
+import com.groupsoftware.minhasfinancas.service.ResumoMensalService;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+@Service
+public class ResumoMensalServiceImpl implements ResumoMensalService {
+
+    private ResumoMensalRepository repository;
+
+    public ResumoMensalServiceImpl(ResumoMensalRepository repository) {
+        this.repository = repository;
+    }
+
+    @Override
+    // Sempre dentro da transação de quem alterou o lançamento
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarMovimento(LancamentoContabil anterior, LancamentoContabil atual) {
+        boolean anteriorContabilizado = anterior != null && anterior.isCompleto();
+        boolean atualContabilizado = atual != null && atual.isCompleto();
+
+        if (anteriorContabilizado && atualContabilizado && anterior.isMesmoResumo(atual)) {
+            BigDecimal diferenca = atual.getValor().subtract(anterior.getValor());
+            if (diferenca.signum() != 0) {
+                somar(atual, diferenca);
+            }
+            return;
+        }
+
+        if (anteriorContabilizado) {
+            somar(anterior, anterior.getValor().negate());
+        }
+        if (atualContabilizado) {
+            somar(atual, atual.getValor());
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TotalPorPeriodoProjection> obterTotaisPorPeriodo(Long idUsuario, int anoInicio, int mesInicio, int anoFim, int mesFim) {
+        return repository.obterTotaisPorPeriodo(idUsuario, anoInicio, anoFim, anoInicio * 100 + mesInicio, anoFim * 100 + mesFim);
+    }
+
+    @Override
+    @Transactional
+    public int reconstruir() {
+        // Quem já alterou um resumo termina antes da exclusão; quem ainda vai alterar espera a reconstrução,
+        // não encontra mais a linha antiga e soma a sua parte sobre a recalculada
+        repository.bloquearTodos();
+        repository.removerTodos();
+        return repository.reconstruir();
+    }
+
+    private void somar(LancamentoContabil lancamento, BigDecimal valor) {
+        // Só o primeiro lançamento do mês com esse tipo e status não encontra a linha
+        if (somarAoTotal(lancamento, valor) == 0 && !repository.criarResumo(lancamento.getIdUsuario(), lancamento.getAno(),
+                lancamento.getMes(), lancamento.getTipo(), lancamento.getStatus(), valor)) {
+            // Outra transação criou a linha ao mesmo tempo; confirmada a criação, a soma passa a encontrá-la
+            somarAoTotal(lancamento, valor);
+        }
+    }
+
+    private int somarAoTotal(LancamentoContabil lancamento, BigDecimal valor) {
+        return repository.somarAoTotal(lancamento.getIdUsuario(), lancamento.getAno(), lancamento.getMes(),
+                lancamento.getTipo(), lancamento.getStatus(), valor);
+    }
+}
@@ -0,0 +1,110 @@
+package com.groupsoftware.minhasfinancas.service.impl;
+
+import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
+import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+import com.groupsoftware.minhasfinancas.model.projection.LancamentoContabil;
+import com.groupsoftware.minhasfinancas.model.projection.SaldoProjection;
+import com.groupsoftware.minhasfinancas.model.projection.TotalPorTipoProjection;
+import com.groupsoftware.minhasfinancas.model.repository.LancamentoRepository;
+import com.groupsoftware.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.groupsoftware.minhasfinancas.service.SaldoUsuarioService;
+import com.groupsoftware.minhasfinancas.service.dto.DivergenciaSaldo;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+@Service
+public class SaldoUsuarioServiceImpl implements SaldoUsuarioService {
+
+    private SaldoUsuarioRepository repository;
+    private LancamentoRepository lancamentoRepository;
+
+    public SaldoUsuarioServiceImpl(SaldoUsuarioRepository repository, LancamentoRepository lancamentoRepository) {
+        this.repository = repository;
+        this.lancamentoRepository = lancamentoRepository;
+    }
+
+    @Override
+    // Sempre dentro da transação de quem alterou o lançamento
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrarMovimento(LancamentoContabil anterior, LancamentoContabil atual) {
+        boolean anteriorEfetivado = anterior != null && anterior.isEfetivado();
+        boolean atualEfetivado = atual != null && atual.isEfetivado();
+
+        if (anteriorEfetivado && atualEfetivado
+                && anterior.getIdUsuario().equals(atual.getIdUsuario()) && anterior.getTipo() == atual.getTipo()) {
+            BigDecimal diferenca = atual.getValor().subtract(anterior.getValor());
+            if (diferenca.signum() != 0) {
+                somar(atual.getIdUsuario(), atual.getTipo(), diferenca);
+            }
+            return;
+        }
+
+        if (anteriorEfetivado) {
+            somar(anterior.getIdUsuario(), anterior.getTipo(), anterior.getValor().negate());
+        }
+        if (atualEfetivado) {
+            somar(atual.getIdUsuario(), atual.getTipo(), atual.getValor());
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public SaldoProjection obterSaldo(Long idUsuario) {
+        return repository.obterSaldoPorUsuario(idUsuario);
+    }
+
+    @Override
+    @Transactional
+    public List<DivergenciaSaldo> reconciliar() {
+        // Com os totais bloqueados, todo lançamento efetivado já confirmado está nos dois lados da comparação
+        // e os ainda não confirmados somam a sua parte depois da correção
+        Map<Map.Entry<Long, TipoLancamento>, BigDecimal> registrados = agruparPorUsuarioETipo(repository.bloquearTotais());
+        Map<Map.Entry<Long, TipoLancamento>, BigDecimal> apurados =
+                agruparPorUsuarioETipo(lancamentoRepository.obterTotaisPorUsuarioETipo(StatusLancamento.EFETIVADO));
+
+        Set<Map.Entry<Long, TipoLancamento>> chaves = new HashSet<>(registrados.keySet());
+        chaves.addAll(apurados.keySet());
+
+        List<DivergenciaSaldo> divergencias = new ArrayList<>();
+        for (Map.Entry<Long, TipoLancamento> chave : chaves) {
+            BigDecimal registrado = registrados.get(chave);
+            BigDecimal apurado = apurados.getOrDefault(chave, BigDecimal.ZERO);
+            if (registrado == null) {
+                // Uma linha criada por outra transação depois do bloqueio não entrou na comparação: fica para a próxima reconciliação
+                if (repository.criarTotal(chave.getKey(), chave.getValue(), apurado)) {
+                    divergencias.add(new DivergenciaSaldo(chave.getKey(), chave.getValue(), BigDecimal.ZERO, apurado));
+                }
+            } else if (registrado.compareTo(apurado) != 0) {
+                divergencias.add(new DivergenciaSaldo(chave.getKey(), chave.getValue(), registrado, apurado));
+                repository.somarAoTotal(chave.getKey(), chave.getValue(), apurado.subtract(registrado));
+            }
+        }
+        return divergencias;
+    }
+
+    private void somar(Long idUsuario, TipoLancamento tipo, BigDecimal valor) {
+        // Só o primeiro lançamento efetivado do tipo não encontra a linha
+        if (repository.somarAoTotal(idUsuario, tipo, valor) == 0 && !repository.criarTotal(idUsuario, tipo, valor)) {
+            // Outra transação criou a linha ao mesmo tempo; confirmada a criação, a soma passa a encontrá-la
+            repository.somarAoTotal(idUsuario, tipo, valor);
+        }
+    }
+
+    private Map<Map.Entry<Long, TipoLancamento>, BigDecimal> agruparPorUsuarioETipo(List<TotalPorTipoProjection> totais) {
+        Map<Map.Entry<Long, TipoLancamento>, BigDecimal> agrupados = new HashMap<>();
+        for (TotalPorTipoProjection total : totais) {
+            agrupados.put(new AbstractMap.SimpleImmutableEntry<>(total.getIdUsuario(), total.getTipo()), total.getTotal());
+        }
+        return agrupados;
+    }
+}
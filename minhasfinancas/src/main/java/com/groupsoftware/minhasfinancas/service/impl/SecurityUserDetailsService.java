@@ -1,20 +1,41 @@
 package com.groupsoftware.minhasfinancas.service.impl;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import com.groupsoftware.minhasfinancas.model.entity.Usuario;
 import com.groupsoftware.minhasfinancas.model.repository.UsuarioRepository;
+import com.groupsoftware.minhasfinancas.service.dto.UsuarioAutenticado;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+
 @Service
 public class SecurityUserDetailsService implements UserDetailsService {
 
     private UsuarioRepository usuarioRepository;
 
-    public SecurityUserDetailsService(UsuarioRepository usuarioRepository) {
+    // Principais já carregados, por email, para que o filtro do token não consulte o banco a cada requisição
+    private Cache<String, UsuarioAutenticado> usuariosAutenticados;
+
+    public SecurityUserDetailsService(UsuarioRepository usuarioRepository,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${seguranca.cache-usuario.tamanho-maximo:10000}") long tamanhoMaximo,
+                                      @Value("${seguranca.cache-usuario.expiracao:PT5M}") Duration expiracao) {
         this.usuarioRepository = usuarioRepository;
+        this.usuariosAutenticados = Caffeine
+                .newBuilder()
+                .maximumSize(tamanhoMaximo)
+                .expireAfterWrite(expiracao)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usuariosAutenticados, "usuariosAutenticados");
     }
 
     @Override
@@ -29,4 +50,16 @@ public class SecurityUserDetailsService implements UserDetailsService {
                 .roles("USER")
                 .build();
     }
-}
\ No newline at end of file
+
+    public UsuarioAutenticado obterUsuarioAutenticado(String email) throws UsernameNotFoundException {
+        return usuariosAutenticados.get(email, chave -> usuarioRepository
+                .findByEmail(chave)
+                .map(usuario -> new UsuarioAutenticado(usuario.getId(), usuario.getEmail()))
+                .orElseThrow(() -> new UsernameNotFoundException("Email não cadastrado.")));
+    }
+
+    // Deve ser chamado sempre que um usuário for alterado ou removido
+    public void invalidar(String email) {
+        usuariosAutenticados.invalidate(email);
+    }
+}
@@ -1,7 +1,10 @@
 package com.groupsoftware.minhasfinancas.service.impl;
 
+import com.groupsoftware.minhasfinancas.config.ExecutorSenhas;
 import com.groupsoftware.minhasfinancas.exception.AutenticacaoException;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import com.groupsoftware.minhasfinancas.exception.RegraNegocioException;
@@ -10,7 +13,9 @@ import com.groupsoftware.minhasfinancas.model.repository.UsuarioRepository;
 import com.groupsoftware.minhasfinancas.service.UsuarioService;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 
 
 /*Estamos dizendo para o container do spring que gerencie uma instância dessa classe.
@@ -24,31 +29,66 @@ public class UsuarioServiceImpl implements UsuarioService {
      */
     private UsuarioRepository repository;
     private PasswordEncoder encoder;
+    private SecurityUserDetailsService userDetailsService;
+    private ExecutorSenhas executorSenhas;
+    private FiltroEmailsCadastrados filtroEmails;
+    private MeterRegistry meterRegistry;
 
     // Indica onde o spring aplica a dependência
     @Autowired
-    public UsuarioServiceImpl(UsuarioRepository repository, PasswordEncoder encoder) {
+    public UsuarioServiceImpl(UsuarioRepository repository, PasswordEncoder encoder, SecurityUserDetailsService userDetailsService,
+                              ExecutorSenhas executorSenhas, FiltroEmailsCadastrados filtroEmails, MeterRegistry meterRegistry) {
         super();
         this.repository = repository;
         this.encoder = encoder;
+        this.userDetailsService = userDetailsService;
+        this.executorSenhas = executorSenhas;
+        this.filtroEmails = filtroEmails;
+        this.meterRegistry = meterRegistry;
     }
 
     @Override
     public Usuario autenticar(String email, String senha) {
-        Optional<Usuario> usuario = repository.findByEmail(email);
+        return verificarSenha(obterPorEmail(email), senha);
+    }
+
+    @Override
+    public CompletableFuture<Usuario> autenticarAssincrono(String email, String senha) {
+        Usuario usuario = obterPorEmail(email);
+        return executorSenhas.executar(() -> verificarSenha(usuario, senha));
+    }
+
+    private Usuario obterPorEmail(String email) {
+        String emailNormalizado = Usuario.normalizarEmail(email);
+        // Rejeita emails inexistentes (ex: tentativas de credential stuffing) sem consultar o banco
+        if (filtroEmails.certamenteNaoCadastrado(emailNormalizado)) {
+            contarConsultaEvitada();
+            throw new AutenticacaoException("Usuário não encontrado para o email informado.");
+        }
+        Optional<Usuario> usuario = repository.findByEmail(emailNormalizado);
 
         if (!usuario.isPresent()) {
             throw new AutenticacaoException("Usuário não encontrado para o email informado.");
         }
+        return usuario.get();
+    }
 
-        boolean senhasBatem = encoder.matches(senha, usuario.get().getSenha());
+    private Usuario verificarSenha(Usuario usuario, String senha) {
+        boolean senhasBatem = encoder.matches(senha, usuario.getSenha());
 
         if (!senhasBatem) {
             throw new AutenticacaoException("Senha inválida.");
         }
 
+        // Senha gravada com outra força do BCrypt: aproveita a senha em texto, disponível só no login, para recalcular
+        if (encoder.upgradeEncoding(usuario.getSenha())) {
+            String senhaCripto = encoder.encode(senha);
+            repository.atualizarSenha(usuario.getId(), senhaCripto);
+            usuario.setSenha(senhaCripto);
+        }
+
         // Retorna a instância do usuário em questão
-        return usuario.get();
+        return usuario;
     }
 
     // Abre uma transação na base de dados, salva o usuário e faz um commit
@@ -57,7 +97,17 @@ public class UsuarioServiceImpl implements UsuarioService {
     public Usuario salvarUsuario(Usuario usuario) {
         validarEmail(usuario.getEmail());
         criptografarSenha(usuario);
-        return repository.save(usuario);
+        Usuario usuarioSalvo;
+        try {
+            usuarioSalvo = repository.save(usuario);
+        } catch (DataIntegrityViolationException e) {
+            // Cadastro simultâneo do mesmo email, barrado pelo índice único
+            throw new RegraNegocioException("Já existe um usuário cadastrado com este email.");
+        }
+        filtroEmails.registrar(usuarioSalvo.getEmail());
+        // Evita que o filtro do token continue usando um principal desatualizado
+        userDetailsService.invalidar(usuarioSalvo.getEmail());
+        return usuarioSalvo;
     }
 
     private void criptografarSenha(Usuario usuario) {
@@ -68,14 +118,37 @@ public class UsuarioServiceImpl implements UsuarioService {
 
     @Override
     public void validarEmail(String email) {
-        boolean existe = repository.existsByEmail(email);
+        String emailNormalizado = Usuario.normalizarEmail(email);
+        // Email certamente novo: dispensa a consulta, o índice único continua garantindo a unicidade no insert
+        if (filtroEmails.certamenteNaoCadastrado(emailNormalizado)) {
+            contarConsultaEvitada();
+            return;
+        }
+        boolean existe = repository.existsByEmail(emailNormalizado);
         if (existe) {
             throw new RegraNegocioException("Já existe um usuário cadastrado com este email.");
         }
     }
 
+    private void contarConsultaEvitada() {
+        meterRegistry.counter("financas.usuario.email.consultas.evitadas").increment();
+    }
+
     @Override
+    @Transactional(readOnly = true)
     public Optional<Usuario> obterPorId(Long id) {
         return repository.findById(id);
     }
+
+    @Override
+    public Usuario obterReferencia(Long id) {
+        return repository.getOne(id);
+    }
+
+    @Override
+    @Transactional
+    public List<String> normalizarEmailsCadastrados() {
+        repository.normalizarEmails();
+        return repository.listarEmailsEmConflito();
+    }
 }
@@ -0,0 +1,77 @@
+package com.groupsoftware.minhasfinancas.service.impl;
+
+import com.groupsoftware.minhasfinancas.config.MonitorAtrasoReplica;
+import com.groupsoftware.minhasfinancas.service.VersaoDadosUsuarioService;
+import com.groupsoftware.minhasfinancas.service.impl.RegistroVersoes.Versao;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+/*
+ * A versão é o instante da última escrita confirmada do usuário, acompanhado da origem do registro de versões.
+ * Sem versão (desabilitado, escrita recente ou registro indisponível), as consultas seguem sem ETag e sem cache.
+ */
+@Slf4j
+@Service
+public class VersaoDadosUsuarioServiceImpl implements VersaoDadosUsuarioService {
+
+    private RegistroVersoes registro;
+    // Com réplica de leitura, uma escrita só é considerada visível depois do atraso máximo aceito para a réplica
+    private long janelaReplica;
+    private boolean habilitado;
+
+    public VersaoDadosUsuarioServiceImpl(RegistroVersoes registro,
+                                         Optional<MonitorAtrasoReplica> monitorReplica,
+                                         @Value("${cache.habilitado:true}") boolean habilitado) {
+        this.registro = registro;
+        this.janelaReplica = monitorReplica.map(monitor -> monitor.getAtrasoMaximo().toMillis()).orElse(0L);
+        this.habilitado = habilitado;
+    }
+
+    @Override
+    public Optional<String> obterVersao(Long idUsuario) {
+        if (!habilitado) {
+            return Optional.empty();
+        }
+        Versao versao;
+        try {
+            versao = registro.obter(idUsuario);
+        } catch (DataAccessException e) {
+            log.debug("Versão do usuário {} indisponível.", idUsuario, e);
+            return Optional.empty();
+        }
+        if (janelaReplica > 0 && System.currentTimeMillis() - versao.getNumero() < janelaReplica) {
+            return Optional.empty();
+        }
+        return Optional.of(versao.getOrigem() + "-" + idUsuario + "-" + Long.toString(versao.getNumero(), 36));
+    }
+
+    @Override
+    public void registrarAlteracao(Long idUsuario) {
+        // Antes do commit, uma consulta concorrente poderia associar a nova versão aos dados antigos
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+                @Override
+                public void afterCommit() {
+                    incrementar(idUsuario);
+                }
+            });
+        } else {
+            incrementar(idUsuario);
+        }
+    }
+
+    private void incrementar(Long idUsuario) {
+        try {
+            registro.incrementar(idUsuario);
+        } catch (DataAccessException e) {
+            // A escrita já foi confirmada: o cache do usuário fica desatualizado até expirar ou até a próxima escrita
+            log.error("Não foi possível alterar a versão dos dados do usuário {}.", idUsuario, e);
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package com.groupsoftware.minhasfinancas.api.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groupsoftware.minhasfinancas.api.dto.AtualizaStatusDTO;
+import com.groupsoftware.minhasfinancas.api.dto.AtualizaStatusLoteDTO;
+import com.groupsoftware.minhasfinancas.api.dto.LancamentoDTO;
+import com.groupsoftware.minhasfinancas.api.dto.OperacaoLancamentoDTO;
+import com.groupsoftware.minhasfinancas.model.entity.Lancamento;
+import com.groupsoftware.minhasfinancas.model.entity.Usuario;
+import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
+import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+import com.groupsoftware.minhasfinancas.service.JwtService;
+import com.groupsoftware.minhasfinancas.service.LancamentoService;
+import com.groupsoftware.minhasfinancas.service.UsuarioService;
+import com.groupsoftware.minhasfinancas.service.VersaoDadosUsuarioService;
+import com.groupsoftware.minhasfinancas.service.dto.ResultadoImportacao;
+import com.groupsoftware.minhasfinancas.service.dto.ResultadoOperacao;
+import com.groupsoftware.minhasfinancas.service.dto.TokenVerificado;
+import com.groupsoftware.minhasfinancas.service.dto.UsuarioAutenticado;
+import com.groupsoftware.minhasfinancas.service.impl.CacheResumosLancamentos;
+import com.groupsoftware.minhasfinancas.service.impl.SecurityUserDetailsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
+
+import java.math.BigDecimal;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = LancamentoController.class)
+@AutoConfigureMockMvc
+// A SecurityConfiguration e o filtro de tamanho de payload registram métricas: o @WebMvcTest não cria um MeterRegistry
+@Import(SimpleMeterRegistry.class)
+public class LancamentoControllerTest {
+
+    static final String API = "/api/lancamentos";
+    static final MediaType JSON = MediaType.APPLICATION_JSON;
+
+    @Autowired
+    MockMvc mvc;
+
+    @MockBean
+    LancamentoService service;
+
+    @MockBean
+    UsuarioService usuarioService;
+
+    @MockBean
+    VersaoDadosUsuarioService versaoDadosUsuarioService;
+
+    @MockBean
+    CacheResumosLancamentos cacheResumosLancamentos;
+
+    // Dependências do filtro de token da SecurityConfiguration
+    @MockBean
+    JwtService jwtService;
+
+    @MockBean
+    SecurityUserDetailsService userDetailsService;
+
+    @BeforeEach
+    public void setUp() {
+        String email = "usuario@email.com";
+        Mockito.when(jwtService.verificar("token"))
+                .thenReturn(Optional.of(new TokenVerificado(email, 1L, "usuario", Instant.now().plusSeconds(60))));
+        Mockito.when(userDetailsService.obterUsuarioAutenticado(email)).thenReturn(new UsuarioAutenticado(1L, email));
+    }
+
+    @Test
+    public void executaLote() throws Exception {
+        // cenário
+        Mockito.when(service.executarLote(Mockito.eq(1L), Mockito.anyList()))
+                .thenReturn(Collections.singletonList(new ResultadoOperacao("c1", 204, 10L, null, false)));
+
+        // ação
+        MockHttpServletRequestBuilder request = lote(operacao("c1", "DELETAR"));
+
+        // verificação
+        mvc
+                .perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("[0].chave").value("c1"))
+                .andExpect(MockMvcResultMatchers.jsonPath("[0].situacao").value(204));
+    }
+
+    @Test
+    public void recusaLoteAcimaDoLimite() throws Exception {
+        // cenário
+        List<OperacaoLancamentoDTO> operacoes = new ArrayList<>();
+        for (int i = 0; i <= 1000; i++) {
+            operacoes.add(operacao("c" + i, "DELETAR"));
+        }
+
+        // ação
+        MockHttpServletRequestBuilder request = lote(operacoes.toArray(new OperacaoLancamentoDTO[0]));
+
+        // verificação
+        mvc
+                .perform(request)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string("Envie no máximo 1000 operações por vez."));
+        Mockito.verify(service, Mockito.never()).executarLote(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void recusaLoteComOperacaoSemChave() throws Exception {
+        // ação
+        MockHttpServletRequestBuilder request = lote(operacao("c1", "DELETAR"), operacao(" ", "DELETAR"));
+
+        // verificação
+        mvc
+                .perform(request)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string("Informe em cada operação uma chave de até 64 caracteres."));
+        Mockito.verify(service, Mockito.never()).executarLote(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void recusaLoteComChaveLongaDemais() throws Exception {
+        // cenário
+        char[] chave = new char[65];
+        Arrays.fill(chave, 'c');
+
+        // ação
+        MockHttpServletRequestBuilder request = lote(operacao(new String(chave), "DELETAR"));
+
+        // verificação
+        mvc
+                .perform(request)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string("Informe em cada operação uma chave de até 64 caracteres."));
+        Mockito.verify(service, Mockito.never()).executarLote(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void recusaLoteComOperacaoInvalida() throws Exception {
+        // ação
+        MockHttpServletRequestBuilder request = lote(operacao("c1", "DELETAR"), operacao("c2", "MOVER"));
+
+        // verificação
+        mvc
+                .perform(request)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string("Operação inválida na chave c2."));
+        Mockito.verify(service, Mockito.never()).executarLote(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void respondeConflitoQuandoOutraRequisicaoGravouAsMesmasChaves() throws Exception {
+        // cenário
+        Mockito.when(service.executarLote(Mockito.eq(1L), Mockito.anyList()))
+                .thenThrow(violacao("UK_CHAVE_IDEMPOTENCIA_INDEX_3"));
+
+        // ação
+        MockHttpServletRequestBuilder request = lote(operacao("c1", "DELETAR"));
+
+        // verificação
+        mvc
+                .perform(request)
+                .andExpect(MockMvcResultMatchers.status().isConflict());
+    }
+
+    @Test
+    public void recusaLoteQueViolaOutraRestricao() throws Exception {
+        // cenário
+        Mockito.when(service.executarLote(Mockito.eq(1L), Mockito.anyList()))
+                .thenThrow(violacao("fk_lancamento_usuario"));
+
+        // ação
+        MockHttpServletRequestBuilder request = lote(operacao("c1", "DELETAR"));
+
+        // verificação
+        mvc
+                .perform(request)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string("O lote viola uma restrição dos dados e nenhuma operação foi executada."));
+    }
+
+    @Test
+    public void recusaLoteQueViolaRestricaoSemNome() throws Exception {
+        // cenário
+        Mockito.when(service.executarLote(Mockito.eq(1L), Mockito.anyList()))
+                .thenThrow(new DataIntegrityViolationException("valor nulo"));
+
+        // ação
+        MockHttpServletRequestBuilder request = lote(operacao("c1", "DELETAR"));
+
+        // verificação
+        mvc
+                .perform(request)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest());
+    }
+
+    @Test
+    public void importaParaOUsuarioAutenticado() throws Exception {
+        // cenário
+        Usuario usuario = Usuario.builder().id(1L).build();
+        Mockito.when(usuarioService.obterReferencia(1L)).thenReturn(usuario);
+        Mockito.when(service.importar(Mockito.anyList())).thenReturn(new ResultadoImportacao(1, Collections.emptyList()));
+
+        // ação
+        MockHttpServletRequestBuilder request = importacao("?usuario=1");
+
+        // verificação
+        mvc
+                .perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("importados").value(1));
+        ArgumentCaptor<List<Lancamento>> lancamentos = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(service).importar(lancamentos.capture());
+        Assertions.assertThat(lancamentos.getValue()).extracting(Lancamento::getUsuario).containsExactly(usuario);
+    }
+
+    @Test
+    public void recusaImportacaoParaOutroUsuario() throws Exception {
+        // ação
+        MockHttpServletRequestBuilder request = importacao("?usuario=2");
+
+        // verificação
+        mvc
+                .perform(request)
+                .andExpect(MockMvcResultMatchers.status().isForbidden());
+        Mockito.verify(service, Mockito.never()).importar(Mockito.any());
+    }
+
+    @Test
+    public void salvaLancamentoRetornandoOCriado() throws Exception {
+        // cenário
+        Mockito.when(usuarioService.obterReferencia(1L)).thenReturn(Usuario.builder().id(1L).build());
+        Mockito.when(service.salvar(Mockito.any(Lancamento.class))).thenAnswer(invocacao -> {
+            Lancamento lancamento = invocacao.getArgument(0);
+            lancamento.setId(10L);
+            lancamento.setStatus(StatusLancamento.PENDENTE);
+            return lancamento;
+        });
+        LancamentoDTO dto = LancamentoDTO.builder().descricao("salário").ano(2020).mes(1).valor(BigDecimal.TEN).tipo("RECEITA").usuario(1L).build();
+
+        // ação
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post(API)
+                .header("Authorization", "Bearer token")
+                .accept(JSON)
+                .contentType(JSON)
+                .content(new ObjectMapper().writeValueAsString(dto));
+
+        // verificação
+        mvc
+                .perform(request)
+                .andExpect(MockMvcResultMatchers.status().isCreated())
+                .andExpect(MockMvcResultMatchers.jsonPath("id").value(10))
+                .andExpect(MockMvcResultMatchers.jsonPath("status").value("PENDENTE"))
+                .andExpect(MockMvcResultMatchers.jsonPath("usuario").value(1));
+    }
+
+    @Test
+    public void atualizaStatusRetornandoOLancamentoAtualizado() throws Exception {
+        // cenário
+        Lancamento atualizado = Lancamento.builder().id(10L).descricao("salário").ano(2020).mes(1).valor(BigDecimal.TEN)
+                .tipo(TipoLancamento.RECEITA).status(StatusLancamento.EFETIVADO).usuario(Usuario.builder().id(1L).build()).build();
+        Mockito.when(service.atualizarStatus(10L, 1L, StatusLancamento.EFETIVADO)).thenReturn(atualizado);
+
+        // ação
+        MockHttpServletRequestBuilder request = atualizacaoStatus("EFETIVADO");
+
+        // verificação
+        mvc
+                .perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.jsonPath("id").value(10))
+                .andExpect(MockMvcResultMatchers.jsonPath("status").value("EFETIVADO"))
+                .andExpect(MockMvcResultMatchers.jsonPath("descricao").value("salário"));
+    }
+
+    @Test
+    public void recusaAtualizacaoDeStatusInvalido() throws Exception {
+        // ação
+        MockHttpServletRequestBuilder request = atualizacaoStatus("PAGO");
+
+        // verificação
+        mvc
+                .perform(request)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string("Não foi possível atualizar o status do lançamento, envie um status válido."));
+        Mockito.verify(service, Mockito.never()).atualizarStatus(Mockito.anyLong(), Mockito.anyLong(), Mockito.any());
+    }
+
+    @Test
+    public void atualizaStatusEmLote() throws Exception {
+        // cenário
+        Mockito.when(service.atualizarStatusEmLote(Mockito.any(Lancamento.class), Mockito.eq(Arrays.asList(1L, 2L)), Mockito.eq(StatusLancamento.EFETIVADO)))
+                .thenReturn(2);
+
+        // ação
+        MockHttpServletRequestBuilder request = atualizacaoStatusEmLote(AtualizaStatusLoteDTO.builder()
+                .ids(Arrays.asList(1L, 2L)).statusAtual("PENDENTE").status("EFETIVADO").build());
+
+        // verificação
+        mvc
+                .perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.content().string("2"));
+        Mockito.verify(service).atualizarStatusEmLote(Mockito.argThat(filtro -> filtro.getStatus() == StatusLancamento.PENDENTE
+                && filtro.getUsuario().getId().equals(1L)), Mockito.anyList(), Mockito.any());
+    }
+
+    @Test
+    public void recusaAtualizacaoDeStatusEmLoteComStatusInvalido() throws Exception {
+        // ação
+        MockHttpServletRequestBuilder request = atualizacaoStatusEmLote(AtualizaStatusLoteDTO.builder()
+                .ids(Collections.singletonList(1L)).status("PAGO").build());
+
+        // verificação
+        mvc
+                .perform(request)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string("Status inválido. Informe o novo status dos lançamentos."));
+        Mockito.verify(service, Mockito.never()).atualizarStatusEmLote(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void recusaAtualizacaoDeStatusEmLoteSemStatus() throws Exception {
+        // ação
+        MockHttpServletRequestBuilder request = atualizacaoStatusEmLote(AtualizaStatusLoteDTO.builder()
+                .ids(Collections.singletonList(1L)).build());
+
+        // verificação
+        mvc
+                .perform(request)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string("Status inválido. Informe o novo status dos lançamentos."));
+        Mockito.verify(service, Mockito.never()).atualizarStatusEmLote(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void recusaAtualizacaoDeStatusEmLoteComStatusAtualInvalido() throws Exception {
+        // ação
+        MockHttpServletRequestBuilder request = atualizacaoStatusEmLote(AtualizaStatusLoteDTO.builder()
+                .ano(2020).statusAtual("ABERTO").status("EFETIVADO").build());
+
+        // verificação
+        mvc
+                .perform(request)
+                .andExpect(MockMvcResultMatchers.status().isBadRequest())
+                .andExpect(MockMvcResultMatchers.content().string("Status inválido. Informe um status atual válido."));
+        Mockito.verify(service, Mockito.never()).atualizarStatusEmLote(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    private static OperacaoLancamentoDTO operacao(String chave, String operacao) {
+        return OperacaoLancamentoDTO.builder().chave(chave).operacao(operacao).id(10L).build();
+    }
+
+    private static MockHttpServletRequestBuilder lote(OperacaoLancamentoDTO... operacoes) throws Exception {
+        return MockMvcRequestBuilders
+                .post(API.concat("/batch"))
+                .header("Authorization", "Bearer token")
+                .accept(JSON)
+                .contentType(JSON)
+                .content(new ObjectMapper().writeValueAsString(operacoes));
+    }
+
+    private static MockHttpServletRequestBuilder importacao(String parametros) throws Exception {
+        LancamentoDTO dto = LancamentoDTO.builder().descricao("salário").ano(2020).mes(1).valor(BigDecimal.TEN).tipo("RECEITA").build();
+        return MockMvcRequestBuilders
+                .post(API.concat("/importar").concat(parametros))
+                .header("Authorization", "Bearer token")
+                .accept(JSON)
+                .contentType(JSON)
+                .content(new ObjectMapper().writeValueAsString(Collections.singletonList(dto)));
+    }
+
+    private static MockHttpServletRequestBuilder atualizacaoStatus(String status) throws Exception {
+        return MockMvcRequestBuilders
+                .put(API.concat("/10/atualiza-status"))
+                .header("Authorization", "Bearer token")
+                .accept(JSON)
+                .contentType(JSON)
+                .content(new ObjectMapper().writeValueAsString(new AtualizaStatusDTO(status)));
+    }
+
+    private static MockHttpServletRequestBuilder atualizacaoStatusEmLote(AtualizaStatusLoteDTO dto) throws Exception {
+        return MockMvcRequestBuilders
+                .put(API.concat("/atualiza-status"))
+                .header("Authorization", "Bearer token")
+                .accept(JSON)
+                .contentType(JSON)
+                .content(new ObjectMapper().writeValueAsString(dto));
+    }
+
+    // Como o Spring traduz a exceção do Hibernate ao violar uma restrição no flush
+    private static DataIntegrityViolationException violacao(String restricao) {
+        return new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException(), restricao));
+    }
+}
@@ -5,8 +5,14 @@ import com.groupsoftware.minhasfinancas.api.dto.UsuarioDTO;
 import com.groupsoftware.minhasfinancas.exception.AutenticacaoException;
 import com.groupsoftware.minhasfinancas.exception.RegraNegocioException;
 import com.groupsoftware.minhasfinancas.model.entity.Usuario;
+import com.groupsoftware.minhasfinancas.service.JwtService;
 import com.groupsoftware.minhasfinancas.service.LancamentoService;
 import com.groupsoftware.minhasfinancas.service.UsuarioService;
+import com.groupsoftware.minhasfinancas.service.VersaoDadosUsuarioService;
+import com.groupsoftware.minhasfinancas.service.dto.TokenVerificado;
+import com.groupsoftware.minhasfinancas.service.dto.UsuarioAutenticado;
+import com.groupsoftware.minhasfinancas.service.impl.SecurityUserDetailsService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
@@ -14,20 +20,30 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.context.junit4.SpringRunner;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
 // Faz com que o contexto rest suba apenas para teste dos controllers em questão
 @WebMvcTest(controllers = UsuarioController.class)
 @AutoConfigureMockMvc // Para ter acesso a um objeto MockMVC
+// A SecurityConfiguration e o filtro de tamanho de payload registram métricas: o @WebMvcTest não cria um MeterRegistry
+@Import(SimpleMeterRegistry.class)
 public class UsuarioControllerTest {
 
     static final String API = "/api/usuarios";
@@ -44,6 +60,17 @@ public class UsuarioControllerTest {
     @MockBean
     LancamentoService lancamentoService;
 
+    @MockBean
+    VersaoDadosUsuarioService versaoDadosUsuarioService;
+
+    /* A SecurityConfiguration entra no contexto de teste junto com o controller: o filtro de token
+    precisa do JwtService e do SecurityUserDetailsService, simulados aqui */
+    @MockBean
+    JwtService jwtService;
+
+    @MockBean
+    SecurityUserDetailsService userDetailsService;
+
     @Test
     public void autenticaUsuario() throws Exception {
         // cenário
@@ -53,7 +80,8 @@ public class UsuarioControllerTest {
         UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();
         Usuario usuarioAutenticado = Usuario.builder().id(1L).email(email).senha(senha).build();
 
-        Mockito.when(service.autenticar(email, senha)).thenReturn(usuarioAutenticado);
+        Mockito.when(service.autenticarAssincrono(email, senha)).thenReturn(CompletableFuture.completedFuture(usuarioAutenticado));
+        Mockito.when(jwtService.gerarToken(usuarioAutenticado)).thenReturn("token");
 
         String json = new ObjectMapper().writeValueAsString(dto);
 
@@ -68,12 +96,16 @@ public class UsuarioControllerTest {
 
         // verificação
 
-        mvc
+        MvcResult resultado = mvc
                 .perform(request)
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mvc
+                .perform(MockMvcRequestBuilders.asyncDispatch(resultado))
                 .andExpect(MockMvcResultMatchers.status().isOk())
-                .andExpect(MockMvcResultMatchers.jsonPath("id").value(usuarioAutenticado.getId()))
                 .andExpect(MockMvcResultMatchers.jsonPath("nome").value(usuarioAutenticado.getNome()))
-                .andExpect(MockMvcResultMatchers.jsonPath("email").value(usuarioAutenticado.getEmail()));
+                .andExpect(MockMvcResultMatchers.jsonPath("token").value("token"));
     }
 
     @Test
@@ -84,7 +116,7 @@ public class UsuarioControllerTest {
 
         UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();
 
-        Mockito.when(service.autenticar(email, senha)).thenThrow(AutenticacaoException.class);
+        Mockito.when(service.autenticarAssincrono(email, senha)).thenThrow(AutenticacaoException.class);
 
         String json = new ObjectMapper().writeValueAsString(dto);
 
@@ -99,11 +131,47 @@ public class UsuarioControllerTest {
 
         // verificação
 
-        mvc
+        MvcResult resultado = mvc
                 .perform(request)
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mvc
+                .perform(MockMvcRequestBuilders.asyncDispatch(resultado))
                 .andExpect(MockMvcResultMatchers.status().isBadRequest());
     }
 
+    @Test
+    public void recusaAutenticacaoComExecutorSaturado() throws Exception {
+        // cenário
+        String email = "usuario@email.com";
+        String senha = "senha";
+
+        UsuarioDTO dto = UsuarioDTO.builder().email(email).senha(senha).build();
+
+        Mockito.when(service.autenticarAssincrono(email, senha)).thenThrow(RejectedExecutionException.class);
+
+        String json = new ObjectMapper().writeValueAsString(dto);
+
+        // ação
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .post(API.concat("/autenticar"))
+                .accept(JSON)
+                .contentType(JSON)
+                .content(json);
+
+        // verificação
+        MvcResult resultado = mvc
+                .perform(request)
+                .andExpect(MockMvcResultMatchers.request().asyncStarted())
+                .andReturn();
+
+        mvc
+                .perform(MockMvcRequestBuilders.asyncDispatch(resultado))
+                .andExpect(MockMvcResultMatchers.status().isTooManyRequests())
+                .andExpect(MockMvcResultMatchers.header().string("Retry-After", "1"));
+    }
+
     @Test
     public void salvaUsuario() throws Exception {
         // cenário
@@ -163,4 +231,56 @@ public class UsuarioControllerTest {
                 .perform(request)
                 .andExpect(MockMvcResultMatchers.status().isBadRequest());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void respondeSaldoNaoModificadoSemConsultarOBanco() throws Exception {
+        // cenário
+        Mockito.when(versaoDadosUsuarioService.obterVersao(1L)).thenReturn(Optional.of("v1"));
+        autenticar("token");
+
+        // ação
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(API.concat("/1/saldo"))
+                .header("Authorization", "Bearer token")
+                .header("If-None-Match", "\"v1\"");
+
+        // verificação
+        mvc
+                .perform(request)
+                .andExpect(MockMvcResultMatchers.status().isNotModified())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "W/\"v1\""))
+                .andExpect(MockMvcResultMatchers.content().string(""));
+        Mockito.verify(service, Mockito.never()).obterPorId(Mockito.any());
+        Mockito.verify(lancamentoService, Mockito.never()).obterSaldoPorUsuario(Mockito.any());
+    }
+
+    @Test
+    public void informaETagAoObterSaldo() throws Exception {
+        // cenário
+        Mockito.when(versaoDadosUsuarioService.obterVersao(1L)).thenReturn(Optional.of("v2"));
+        Mockito.when(service.obterPorId(1L)).thenReturn(Optional.of(Usuario.builder().id(1L).build()));
+        Mockito.when(lancamentoService.obterSaldoPorUsuario(1L)).thenReturn(BigDecimal.TEN);
+        autenticar("token");
+
+        // ação
+        MockHttpServletRequestBuilder request = MockMvcRequestBuilders
+                .get(API.concat("/1/saldo"))
+                .header("Authorization", "Bearer token")
+                .header("If-None-Match", "\"v1\"");
+
+        // verificação
+        mvc
+                .perform(request)
+                .andExpect(MockMvcResultMatchers.status().isOk())
+                .andExpect(MockMvcResultMatchers.header().string("ETag", "W/\"v2\""))
+                .andExpect(MockMvcResultMatchers.content().string("10"));
+    }
+
+    // O token passa pelo JwtTokenFilter da SecurityConfiguration, como nas requisições reais
+    private void autenticar(String token) {
+        String email = "usuario@email.com";
+        Mockito.when(jwtService.verificar(token))
+                .thenReturn(Optional.of(new TokenVerificado(email, 1L, "usuario", Instant.now().plusSeconds(60))));
+        Mockito.when(userDetailsService.obterUsuarioAutenticado(email)).thenReturn(new UsuarioAutenticado(1L, email));
+    }
+}
@@ -0,0 +1,47 @@
+package com.groupsoftware.minhasfinancas.config;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class BCryptPasswordEncoderComForcaTest {
+
+    @Test
+    public void mantemSenhaComAMesmaForca() {
+        // cenário
+        BCryptPasswordEncoderComForca encoder = new BCryptPasswordEncoderComForca(4);
+        String senha = encoder.encode("senha");
+
+        // ação
+        boolean recalcular = encoder.upgradeEncoding(senha);
+
+        // verificação
+        assertThat(recalcular).isFalse();
+    }
+
+    @Test
+    public void recalculaSenhaComForcaMaiorOuMenor() {
+        // cenário
+        String senhaForca5 = new BCryptPasswordEncoderComForca(5).encode("senha");
+
+        // ação
+        boolean recalcularParaMais = new BCryptPasswordEncoderComForca(6).upgradeEncoding(senhaForca5);
+        boolean recalcularParaMenos = new BCryptPasswordEncoderComForca(4).upgradeEncoding(senhaForca5);
+
+        // verificação
+        assertThat(recalcularParaMais).isTrue();
+        assertThat(recalcularParaMenos).isTrue();
+    }
+
+    @Test
+    public void ignoraSenhaForaDoFormatoBCrypt() {
+        // cenário
+        BCryptPasswordEncoderComForca encoder = new BCryptPasswordEncoderComForca(4);
+
+        // ação
+        boolean recalcular = encoder.upgradeEncoding("senha");
+
+        // verificação
+        assertThat(recalcular).isFalse();
+    }
+}
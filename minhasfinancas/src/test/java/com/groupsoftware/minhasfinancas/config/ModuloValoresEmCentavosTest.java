@@ -0,0 +1,50 @@
+package com.groupsoftware.minhasfinancas.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.groupsoftware.minhasfinancas.api.dto.LancamentoDTO;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ModuloValoresEmCentavosTest {
+
+    private final ObjectMapper cbor = new ObjectMapper(new CBORFactory()).registerModule(new ModuloValoresEmCentavos());
+
+    @Test
+    public void gravaValorComoInteiroDeCentavos() throws Exception {
+        // cenário
+        LancamentoDTO dto = LancamentoDTO.builder().descricao("salário").valor(new BigDecimal("1234.56")).build();
+
+        // ação
+        JsonNode lido = new ObjectMapper(new CBORFactory()).readTree(cbor.writeValueAsBytes(dto));
+
+        // verificação
+        assertThat(lido.get("valor").isIntegralNumber()).isTrue();
+        assertThat(lido.get("valor").longValue()).isEqualTo(123456L);
+    }
+
+    @Test
+    public void leCentavosDeVoltaComDuasCasas() throws Exception {
+        // cenário
+        LancamentoDTO dto = LancamentoDTO.builder().valor(new BigDecimal("-0.5")).build();
+
+        // ação
+        LancamentoDTO lido = cbor.readValue(cbor.writeValueAsBytes(dto), LancamentoDTO.class);
+
+        // verificação
+        assertThat(lido.getValor()).isEqualTo(new BigDecimal("-0.50"));
+    }
+
+    @Test
+    public void arredondaTotaisComMaisDeDuasCasas() throws Exception {
+        // ação
+        JsonNode lido = new ObjectMapper(new CBORFactory()).readTree(cbor.writeValueAsBytes(new BigDecimal("10.125")));
+
+        // verificação
+        assertThat(lido.longValue()).isEqualTo(1012L);
+    }
+}
@@ -0,0 +1,78 @@
+package com.groupsoftware.minhasfinancas.config;
+
+import com.groupsoftware.minhasfinancas.model.entity.Usuario;
+import com.groupsoftware.minhasfinancas.model.repository.UsuarioRepository;
+import com.groupsoftware.minhasfinancas.service.UsuarioService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+/* Primário e réplica em dois bancos H2 distintos; a replicação é simulada copiando o primário para a réplica.
+A consulta de atraso falha enquanto a réplica não tem as tabelas: até a cópia, as leituras ficam no primário */
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:primario;DB_CLOSE_DELAY=-1;INIT=CREATE SCHEMA IF NOT EXISTS financas",
+        "replica.datasource.url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+        "replica.datasource.username=sa",
+        "replica.datasource.password=sa",
+        "replica.consulta-atraso=select count(*) * 0 from financas.usuario"
+})
+@ActiveProfiles("test")
+@DirtiesContext
+public class ReplicaConfigurationTest {
+
+    @Autowired
+    PoolsReplicacao pools;
+
+    @Autowired
+    MonitorAtrasoReplica monitor;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    UsuarioService usuarioService;
+
+    @Test
+    public void leNaReplicaOQueFoiGravadoNoPrimario() {
+        // cenário
+        Usuario usuario = usuarioRepository.save(Usuario.builder().nome("original").email("replica@email.com").senha("senha").build());
+        monitor.verificar();
+        assertThat(monitor.isReplicaDisponivel()).isFalse();
+        assertThat(usuarioService.obterPorId(usuario.getId())).isPresent();
+
+        replicar();
+        monitor.verificar();
+
+        // Alteração ainda não replicada: só o primário a conhece
+        usuario.setNome("alterado");
+        usuarioRepository.save(usuario);
+
+        // ação (obterPorId abre uma transação somente leitura, enviada à réplica)
+        Usuario lidoNaReplica = usuarioService.obterPorId(usuario.getId()).get();
+        String nomeNoPrimario = new JdbcTemplate(pools.getPrimario())
+                .queryForObject("select nome from financas.usuario where id = ?", String.class, usuario.getId());
+
+        // verificação
+        assertThat(monitor.isReplicaDisponivel()).isTrue();
+        assertThat(lidoNaReplica.getNome()).isEqualTo("original");
+        assertThat(nomeNoPrimario).isEqualTo("alterado");
+    }
+
+    // Copia para a réplica o estado atual do primário, como faria a replicação
+    private void replicar() {
+        List<String> comandos = new JdbcTemplate(pools.getPrimario()).queryForList("script", String.class);
+        JdbcTemplate replica = new JdbcTemplate(pools.getReplica());
+        replica.execute("drop all objects");
+        comandos.forEach(replica::execute);
+    }
+}
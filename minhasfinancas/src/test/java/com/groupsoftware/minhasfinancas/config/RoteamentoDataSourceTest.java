@@ -0,0 +1,60 @@
+package com.groupsoftware.minhasfinancas.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class RoteamentoDataSourceTest {
+
+    MonitorAtrasoReplica monitor = Mockito.mock(MonitorAtrasoReplica.class);
+
+    RoteamentoDataSource dataSource = new RoteamentoDataSource(Mockito.mock(DataSource.class), Mockito.mock(DataSource.class), monitor);
+
+    @AfterEach
+    public void limpar() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+    }
+
+    @Test
+    public void enviaTransacaoSomenteLeituraParaAReplica() {
+        // cenário
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Mockito.when(monitor.isReplicaDisponivel()).thenReturn(true);
+
+        // ação
+        Object destino = dataSource.determineCurrentLookupKey();
+
+        // verificação
+        assertThat(destino).isEqualTo(RoteamentoDataSource.Destino.REPLICA);
+    }
+
+    @Test
+    public void enviaEscritaParaOPrimario() {
+        // cenário
+        Mockito.when(monitor.isReplicaDisponivel()).thenReturn(true);
+
+        // ação
+        Object destino = dataSource.determineCurrentLookupKey();
+
+        // verificação
+        assertThat(destino).isEqualTo(RoteamentoDataSource.Destino.PRIMARIO);
+    }
+
+    @Test
+    public void enviaLeituraParaOPrimarioQuandoAReplicaEstaAtrasada() {
+        // cenário
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        Mockito.when(monitor.isReplicaDisponivel()).thenReturn(false);
+
+        // ação
+        Object destino = dataSource.determineCurrentLookupKey();
+
+        // verificação
+        assertThat(destino).isEqualTo(RoteamentoDataSource.Destino.PRIMARIO);
+    }
+}
@@ -0,0 +1,167 @@
+package com.groupsoftware.minhasfinancas.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.groupsoftware.minhasfinancas.model.entity.Lancamento;
+import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
+import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+import com.groupsoftware.minhasfinancas.model.projection.LancamentoResumo;
+import com.groupsoftware.minhasfinancas.service.impl.CacheResumosLancamentos;
+import com.groupsoftware.minhasfinancas.service.impl.RegistroVersoesRedis;
+import com.groupsoftware.minhasfinancas.service.impl.VersaoDadosUsuarioServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class CacheResumosLancamentosTest {
+
+    // Servidor Redis local que faz o papel do cache compartilhado entre as instâncias
+    static RedisServer servidor;
+    static LettuceConnectionFactory conexoes;
+    static StringRedisTemplate redis;
+
+    AtomicInteger consultas = new AtomicInteger();
+    List<LancamentoResumo> resumos = Arrays.asList(new LancamentoResumo(1L, "salário", 6, new BigDecimal("1500.00"), TipoLancamento.RECEITA, StatusLancamento.PENDENTE));
+    Supplier<List<LancamentoResumo>> consulta = () -> {
+        consultas.incrementAndGet();
+        return resumos;
+    };
+
+    @BeforeAll
+    public static void iniciarRedis() throws IOException {
+        int porta;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            porta = socket.getLocalPort();
+        }
+        servidor = RedisServer.builder().port(porta).setting("maxmemory 64mb").build();
+        servidor.start();
+        conexoes = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", porta));
+        conexoes.afterPropertiesSet();
+        redis = new StringRedisTemplate(conexoes);
+    }
+
+    @AfterAll
+    public static void pararRedis() {
+        conexoes.destroy();
+        servidor.stop();
+    }
+
+    @BeforeEach
+    public void limparRedis() {
+        redis.getConnectionFactory().getConnection().flushAll();
+    }
+
+    @Test
+    public void consultaOBancoUmaVezPorVersaoEFiltro() {
+        // cenário
+        CacheResumosLancamentos cache = criarCache(false);
+
+        // ação
+        List<LancamentoResumo> primeira = cache.obter(Optional.of("v1"), filtro(2020, 6), consulta);
+        List<LancamentoResumo> segunda = cache.obter(Optional.of("v1"), filtro(2020, 6), consulta);
+        cache.obter(Optional.of("v1"), filtro(2020, 7), consulta);
+        cache.obter(Optional.of("v2"), filtro(2020, 6), consulta);
+
+        // verificação
+        assertThat(primeira).isEqualTo(resumos);
+        assertThat(segunda).isSameAs(primeira);
+        assertThat(consultas.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void naoGuardaConsultaSemVersao() {
+        // cenário
+        CacheResumosLancamentos cache = criarCache(false);
+
+        // ação
+        cache.obter(Optional.empty(), filtro(2020, 6), consulta);
+        cache.obter(Optional.empty(), filtro(2020, 6), consulta);
+
+        // verificação
+        assertThat(consultas.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void compartilhaConsultaEntreInstancias() {
+        // cenário
+        CacheResumosLancamentos instanciaA = criarCache(true);
+        CacheResumosLancamentos instanciaB = criarCache(true);
+        instanciaA.obter(Optional.of("v1"), filtro(2020, 6), consulta);
+
+        // ação
+        List<LancamentoResumo> resultado = instanciaB.obter(Optional.of("v1"), filtro(2020, 6), consulta);
+
+        // verificação
+        assertThat(consultas.get()).isEqualTo(1);
+        assertThat(resultado).hasSize(1);
+        assertThat(resultado.get(0).getDescricao()).isEqualTo("salário");
+        assertThat(resultado.get(0).getValor()).isEqualByComparingTo("1500.00");
+        assertThat(resultado.get(0).getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+    }
+
+    @Test
+    public void invalidaEmTodasAsInstanciasAEscritaFeitaEmUma() {
+        // cenário
+        VersaoDadosUsuarioService versaoA = new VersaoDadosUsuarioServiceImpl(new RegistroVersoesRedis(redis), Optional.empty(), true);
+        VersaoDadosUsuarioService versaoB = new VersaoDadosUsuarioServiceImpl(new RegistroVersoesRedis(redis), Optional.empty(), true);
+        CacheResumosLancamentos cacheA = criarCache(true);
+        CacheResumosLancamentos cacheB = criarCache(true);
+        cacheA.obter(versaoA.obterVersao(1L), filtro(2020, 6), consulta);
+        cacheB.obter(versaoB.obterVersao(1L), filtro(2020, 6), consulta);
+
+        // ação
+        versaoA.registrarAlteracao(1L);
+        cacheB.obter(versaoB.obterVersao(1L), filtro(2020, 6), consulta);
+
+        // verificação
+        assertThat(consultas.get()).isEqualTo(2);
+        assertThat(versaoB.obterVersao(1L)).isEqualTo(versaoA.obterVersao(1L));
+        assertThat(versaoB.obterVersao(2L)).isPresent();
+    }
+
+    @Test
+    public void mudaAOrigemDasVersoesQuandoORedisPerdeOsDados() {
+        // cenário
+        VersaoDadosUsuarioService versao = new VersaoDadosUsuarioServiceImpl(new RegistroVersoesRedis(redis), Optional.empty(), true);
+        Optional<String> antes = versao.obterVersao(1L);
+
+        // ação
+        redis.getConnectionFactory().getConnection().flushAll();
+
+        // verificação
+        assertThat(versao.obterVersao(1L)).isPresent().isNotEqualTo(antes);
+    }
+
+    @SuppressWarnings("unchecked")
+    private CacheResumosLancamentos criarCache(boolean compartilhado) {
+        ObjectProvider<StringRedisTemplate> provedor = Mockito.mock(ObjectProvider.class);
+        Mockito.when(provedor.getObject()).thenReturn(redis);
+        return new CacheResumosLancamentos(new ObjectMapper(), new SimpleMeterRegistry(), provedor, compartilhado, 1000, Duration.ofMinutes(1));
+    }
+
+    private static Lancamento filtro(int ano, int mes) {
+        Lancamento filtro = new Lancamento();
+        filtro.setAno(ano);
+        filtro.setMes(mes);
+        return filtro;
+    }
+}
@@ -0,0 +1,78 @@
+package com.groupsoftware.minhasfinancas.service;
+
+import com.groupsoftware.minhasfinancas.model.entity.ChaveIdempotencia;
+import com.groupsoftware.minhasfinancas.model.repository.ChaveIdempotenciaRepository;
+import com.groupsoftware.minhasfinancas.service.dto.ResultadoOperacao;
+import com.groupsoftware.minhasfinancas.service.impl.ChaveIdempotenciaServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class ChaveIdempotenciaServiceTest {
+
+    ChaveIdempotenciaRepository repository;
+    ChaveIdempotenciaServiceImpl service;
+
+    @BeforeEach
+    public void setUp() {
+        repository = Mockito.mock(ChaveIdempotenciaRepository.class);
+        service = new ChaveIdempotenciaServiceImpl(repository, Duration.ofDays(1));
+    }
+
+    @Test
+    public void obtemResultadosComoRepetidos() {
+        // cenário
+        List<String> chaves = Arrays.asList("a", "b");
+        ChaveIdempotencia gravada = ChaveIdempotencia
+                .builder()
+                .idUsuario(1L)
+                .chave("a")
+                .situacao((short) 201)
+                .idLancamento(5L)
+                .build();
+        Mockito.when(repository.buscarVigentes(Mockito.eq(1L), Mockito.eq(chaves), Mockito.any(Instant.class)))
+                .thenReturn(Collections.singletonList(gravada));
+
+        // ação
+        Map<String, ResultadoOperacao> resultados = service.obterResultados(1L, chaves);
+
+        // verificação
+        assertThat(resultados).containsOnlyKeys("a");
+        assertThat(resultados.get("a").getSituacao()).isEqualTo(201);
+        assertThat(resultados.get("a").getId()).isEqualTo(5L);
+        assertThat(resultados.get("a").isRepetida()).isTrue();
+        Mockito.verify(repository).removerExpiradas(Mockito.eq(1L), Mockito.eq(chaves), Mockito.any(Instant.class));
+    }
+
+    @Test
+    public void registraResultadosComExpiracao() {
+        // ação
+        service.registrar(1L, Collections.singletonList(new ResultadoOperacao("a", 400, null, "Informe um Valor válido.", false)));
+
+        // verificação
+        Mockito.verify(repository).saveAll(Mockito.argThat((List<ChaveIdempotencia> chaves) -> chaves.size() == 1
+                && chaves.get(0).getSituacao() == 400
+                && chaves.get(0).getMensagem().equals("Informe um Valor válido.")
+                && chaves.get(0).getExpiraEm().isAfter(Instant.now())));
+        Mockito.verify(repository).flush();
+    }
+
+    @Test
+    public void naoConsultaSemChaves() {
+        // ação
+        Map<String, ResultadoOperacao> resultados = service.obterResultados(1L, Collections.emptyList());
+
+        // verificação
+        assertThat(resultados).isEmpty();
+        Mockito.verifyNoInteractions(repository);
+    }
+}
@@ -0,0 +1,126 @@
+package com.groupsoftware.minhasfinancas.service;
+
+import com.groupsoftware.minhasfinancas.model.projection.EmailCadastradoProjection;
+import com.groupsoftware.minhasfinancas.model.repository.UsuarioRepository;
+import com.groupsoftware.minhasfinancas.service.impl.FiltroEmailsCadastrados;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class FiltroEmailsCadastradosTest {
+
+    UsuarioRepository repository = Mockito.mock(UsuarioRepository.class);
+
+    FiltroEmailsCadastrados filtro = new FiltroEmailsCadastrados(repository, 1000, 5, true);
+
+    @Test
+    public void naoDescartaNenhumEmailAntesDaCarga() {
+        // ação
+        boolean naoCadastrado = filtro.certamenteNaoCadastrado("novo@email.com");
+
+        // verificação
+        assertThat(naoCadastrado).isFalse();
+    }
+
+    @Test
+    public void descartaEmailAusenteDaBase() {
+        // cenário
+        Stream<EmailCadastradoProjection> emails = Stream.of(email(1L, "usuario@email.com"), email(2L, "outro@email.com"));
+        Mockito.when(repository.listarEmailsApos(0L)).thenReturn(emails);
+
+        // ação
+        filtro.sincronizar();
+
+        // verificação
+        assertThat(filtro.certamenteNaoCadastrado("usuario@email.com")).isFalse();
+        assertThat(filtro.certamenteNaoCadastrado("outro@email.com")).isFalse();
+        assertThat(filtro.certamenteNaoCadastrado("novo@email.com")).isTrue();
+    }
+
+    @Test
+    public void carregaEmailsAntigosNormalizados() {
+        // cenário
+        Stream<EmailCadastradoProjection> emails = Stream.of(email(1L, " Usuario@Email.com "));
+        Mockito.when(repository.listarEmailsApos(0L)).thenReturn(emails);
+
+        // ação
+        filtro.sincronizar();
+
+        // verificação
+        assertThat(filtro.certamenteNaoCadastrado("usuario@email.com")).isFalse();
+    }
+
+    @Test
+    public void reconheceEmailRegistradoAposACarga() {
+        // cenário
+        Mockito.when(repository.listarEmailsApos(0L)).thenReturn(Stream.empty());
+        filtro.sincronizar();
+
+        // ação
+        filtro.registrar("novo@email.com");
+
+        // verificação
+        assertThat(filtro.certamenteNaoCadastrado("novo@email.com")).isFalse();
+    }
+
+    @Test
+    public void incluiSomenteUsuariosNovosNaSincronizacao() {
+        // cenário
+        Stream<EmailCadastradoProjection> carga = Stream.of(email(1L, "usuario@email.com"), email(17L, "outro@email.com"));
+        Stream<EmailCadastradoProjection> novos = Stream.of(email(17L, "outro@email.com"), email(18L, "outra.instancia@email.com"));
+        Mockito.when(repository.listarEmailsApos(0L)).thenReturn(carga);
+        Mockito.when(repository.listarEmailsApos(12L)).thenReturn(novos);
+        filtro.sincronizar();
+
+        // ação
+        filtro.sincronizar();
+
+        // verificação
+        Mockito.verify(repository).listarEmailsApos(12L);
+        assertThat(filtro.certamenteNaoCadastrado("outra.instancia@email.com")).isFalse();
+    }
+
+    @Test
+    public void incluiIdMenorConfirmadoDepoisDoMaior() {
+        // cenário
+        Stream<EmailCadastradoProjection> carga = Stream.of(email(1L, "usuario@email.com"), email(17L, "outro@email.com"));
+        // O id 15 foi gerado antes do 17, mas confirmado depois da carga
+        Stream<EmailCadastradoProjection> releitura = Stream.of(email(15L, "atrasado@email.com"), email(17L, "outro@email.com"));
+        Stream<EmailCadastradoProjection> seguinte = Stream.of(email(15L, "atrasado@email.com"), email(17L, "outro@email.com"));
+        Mockito.when(repository.listarEmailsApos(0L)).thenReturn(carga);
+        Mockito.when(repository.listarEmailsApos(12L)).thenReturn(releitura, seguinte);
+        filtro.sincronizar();
+
+        // ação
+        filtro.sincronizar();
+        filtro.sincronizar();
+
+        // verificação
+        assertThat(filtro.certamenteNaoCadastrado("atrasado@email.com")).isFalse();
+        // O maior id lido não recua por causa da releitura
+        Mockito.verify(repository, Mockito.times(2)).listarEmailsApos(12L);
+    }
+
+    @Test
+    public void naoDescartaEmailsQuandoDesabilitado() {
+        // cenário
+        FiltroEmailsCadastrados desabilitado = new FiltroEmailsCadastrados(repository, 1000, 5, false);
+
+        // ação
+        desabilitado.sincronizar();
+
+        // verificação
+        assertThat(desabilitado.certamenteNaoCadastrado("novo@email.com")).isFalse();
+        Mockito.verify(repository, Mockito.never()).listarEmailsApos(Mockito.anyLong());
+    }
+
+    private static EmailCadastradoProjection email(Long id, String email) {
+        EmailCadastradoProjection projection = Mockito.mock(EmailCadastradoProjection.class);
+        Mockito.when(projection.getId()).thenReturn(id);
+        Mockito.when(projection.getEmail()).thenReturn(email);
+        return projection;
+    }
+}
@@ -0,0 +1,74 @@
+package com.groupsoftware.minhasfinancas.service;
+
+import com.groupsoftware.minhasfinancas.model.entity.Usuario;
+import com.groupsoftware.minhasfinancas.service.dto.TokenVerificado;
+import com.groupsoftware.minhasfinancas.service.impl.JwtServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JwtServiceTest {
+
+    MeterRegistry registry;
+    JwtServiceImpl service;
+
+    Usuario usuario = Usuario.builder().id(1L).nome("usuario").email("usuario@email.com").build();
+
+    @BeforeEach
+    public void setUp() {
+        registry = new SimpleMeterRegistry();
+        service = new JwtServiceImpl(registry, 100);
+        ReflectionTestUtils.setField(service, "expiracao", "30");
+        ReflectionTestUtils.setField(service, "chaveAssinatura", "YSBsZWJyZSDDqSBicmFuY2E=");
+    }
+
+    @Test
+    public void verificaTokenUmaUnicaVez() {
+        // cenário
+        String token = service.gerarToken(usuario);
+
+        // ação
+        Optional<TokenVerificado> primeiro = service.verificar(token);
+        Optional<TokenVerificado> segundo = service.verificar(token);
+
+        // verificação
+        assertThat(primeiro).isPresent();
+        assertThat(primeiro.get().getEmail()).isEqualTo("usuario@email.com");
+        assertThat(primeiro.get().getIdUsuario()).isEqualTo(1L);
+        assertThat(segundo.get()).isSameAs(primeiro.get());
+        assertThat(registry.get("cache.gets").tag("cache", "tokensVerificados").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void rejeitaTokenAdulterado() {
+        // cenário
+        String token = service.gerarToken(usuario);
+        String adulterado = token.substring(0, token.length() - 2) + (token.endsWith("AA") ? "BB" : "AA");
+
+        // ação
+        Optional<TokenVerificado> verificado = service.verificar(adulterado);
+
+        // verificação
+        assertThat(verificado).isEmpty();
+        assertThat(service.isTokenValido(adulterado)).isFalse();
+    }
+
+    @Test
+    public void rejeitaTokenExpirado() {
+        // cenário
+        ReflectionTestUtils.setField(service, "expiracao", "-1");
+        String token = service.gerarToken(usuario);
+
+        // ação
+        Optional<TokenVerificado> verificado = service.verificar(token);
+
+        // verificação
+        assertThat(verificado).isEmpty();
+    }
+}
@@ -4,24 +4,42 @@ import com.groupsoftware.minhasfinancas.exception.RegraNegocioException;
 import com.groupsoftware.minhasfinancas.model.entity.Lancamento;
 import com.groupsoftware.minhasfinancas.model.entity.Usuario;
 import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
+import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+import com.groupsoftware.minhasfinancas.model.projection.LancamentoContabil;
+import com.groupsoftware.minhasfinancas.model.projection.LancamentoResumo;
+import com.groupsoftware.minhasfinancas.model.projection.SaldoProjection;
+import com.groupsoftware.minhasfinancas.model.repository.CursorLancamento;
 import com.groupsoftware.minhasfinancas.model.repository.LancamentoRepository;
 import com.groupsoftware.minhasfinancas.model.repository.LancamentosRepositoryTest;
+import com.groupsoftware.minhasfinancas.service.dto.OperacaoLancamento;
+import com.groupsoftware.minhasfinancas.service.dto.Pagina;
+import com.groupsoftware.minhasfinancas.service.dto.ResultadoImportacao;
+import com.groupsoftware.minhasfinancas.service.dto.ResultadoOperacao;
 import com.groupsoftware.minhasfinancas.service.impl.LancamentoServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
-import org.springframework.data.domain.Example;
+import org.springframework.context.annotation.Bean;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.context.junit4.SpringRunner;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.*;
 
@@ -35,6 +53,29 @@ public class LancamentoServiceTest {
     @MockBean // simula o comportamento
     LancamentoRepository repository;
 
+    @MockBean
+    SaldoUsuarioService saldoUsuarioService;
+
+    @MockBean
+    ResumoMensalService resumoMensalService;
+
+    @MockBean
+    VersaoDadosUsuarioService versaoDadosUsuarioService;
+
+    @MockBean
+    ChaveIdempotenciaService chaveIdempotenciaService;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @TestConfiguration
+    static class Metricas {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
     @Test
     public void salvaLancamento() {
         // cenário
@@ -66,22 +107,81 @@ public class LancamentoServiceTest {
         Mockito.verify(repository, Mockito.never()).save(lancamentoASalvar);
     }
 
+    @Test
+    public void buscaResumosDosLancamentos() {
+        // cenário
+        Lancamento lancamentoFiltro = LancamentosRepositoryTest.criaLancamentoTeste();
+        lancamentoFiltro.setUsuario(Usuario.builder().id(1L).build());
+        List<LancamentoResumo> resumos = Arrays.asList(new LancamentoResumo(1L, "salário", 1, BigDecimal.TEN, TipoLancamento.RECEITA, StatusLancamento.PENDENTE));
+        Mockito.when(repository.buscarResumos(Mockito.any(Specification.class))).thenReturn(resumos);
+
+        // ação
+        List<LancamentoResumo> resultado = service.buscarResumos(lancamentoFiltro);
+
+        // verificação
+        assertThat(resultado).isSameAs(resumos);
+        Mockito.verify(repository, Mockito.never()).findAll(Mockito.any(Specification.class), Mockito.any(Sort.class));
+    }
+
+    @Test
+    public void importaLancamentosRelatandoLinhasInvalidas() {
+        // cenário
+        Lancamento valido = LancamentosRepositoryTest.criaLancamentoTeste();
+        valido.setUsuario(Usuario.builder().id(1L).build());
+        Lancamento semDescricao = LancamentosRepositoryTest.criaLancamentoTeste();
+        semDescricao.setUsuario(Usuario.builder().id(1L).build());
+        semDescricao.setDescricao(null);
+
+        // ação
+        ResultadoImportacao resultado = service.importar(Arrays.asList(valido, semDescricao));
+
+        // verificação
+        assertThat(resultado.getImportados()).isEqualTo(1);
+        assertThat(resultado.getErros()).hasSize(1);
+        assertThat(resultado.getErros().get(0).getLinha()).isEqualTo(2);
+        assertThat(resultado.getErros().get(0).getMensagem()).isEqualTo("Informe uma Descrição válida.");
+        Mockito.verify(repository).saveAll(Arrays.asList(valido));
+        Mockito.verify(repository).flush();
+    }
+
     @Test
     public void atualizaLancamento() {
         // cenário
         Lancamento lancamentoSalvo = LancamentosRepositoryTest.criaLancamentoTeste();
         lancamentoSalvo.setId(1L);
+        lancamentoSalvo.setUsuario(Usuario.builder().id(1L).build());
         lancamentoSalvo.setStatus(StatusLancamento.PENDENTE);
 
         Mockito.doNothing().when(service).validar(lancamentoSalvo);
-
-        Mockito.when(repository.save(lancamentoSalvo)).thenReturn(lancamentoSalvo);
+        Mockito.when(repository.obterSituacaoContabil(1L)).thenReturn(Optional.of(LancamentoContabil.de(lancamentoSalvo)));
 
         // ação
         service.atualizar(lancamentoSalvo);
 
         // verificação
-        Mockito.verify(repository, Mockito.times(1)).save(lancamentoSalvo);
+        Mockito.verify(repository, Mockito.times(1)).atualizarDados(1L, 1L, lancamentoSalvo.getDescricao(), lancamentoSalvo.getMes(),
+                lancamentoSalvo.getAno(), lancamentoSalvo.getValor(), lancamentoSalvo.getTipo(), lancamentoSalvo.getStatus());
+        Mockito.verify(repository, Mockito.never()).save(lancamentoSalvo);
+        Mockito.verify(versaoDadosUsuarioService).registrarAlteracao(1L);
+    }
+
+    @Test
+    public void naoAtualizaLancamentoDeOutroUsuario() {
+        // cenário
+        Lancamento lancamento = LancamentosRepositoryTest.criaLancamentoTeste();
+        lancamento.setId(1L);
+        lancamento.setUsuario(Usuario.builder().id(2L).build());
+        Mockito.doNothing().when(service).validar(lancamento);
+        Mockito.when(repository.obterSituacaoContabil(1L))
+                .thenReturn(Optional.of(new LancamentoContabil(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.TEN)));
+
+        // ação
+        Throwable exception = catchThrowable(() -> service.atualizar(lancamento));
+
+        // verificação
+        assertThat(exception).isInstanceOf(RegraNegocioException.class).hasMessage("Lançamento não encontrado na base de dados.");
+        Mockito.verify(repository, Mockito.never()).atualizarDados(Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any(),
+                Mockito.any(), Mockito.any(), Mockito.any(), Mockito.any());
     }
 
     @Test
@@ -94,6 +194,94 @@ public class LancamentoServiceTest {
         Mockito.verify(repository, Mockito.never()).save(lancamentoASalvar);
     }
 
+    @Test
+    public void executaLoteComUmMovimentoPorGrupo() {
+        // cenário
+        Lancamento novo = LancamentosRepositoryTest.criaLancamentoTeste();
+        novo.setUsuario(Usuario.builder().id(1L).build());
+        Lancamento novoSalvo = LancamentosRepositoryTest.criaLancamentoTeste();
+        novoSalvo.setId(5L);
+        novoSalvo.setUsuario(novo.getUsuario());
+        Mockito.when(repository.save(novo)).thenReturn(novoSalvo);
+
+        Lancamento existente = LancamentosRepositoryTest.criaLancamentoTeste();
+        existente.setId(2L);
+        existente.setUsuario(novo.getUsuario());
+        // O lançamento 3 não é do usuário: não é bloqueado
+        Mockito.when(repository.bloquearIds(Mockito.any(Specification.class))).thenReturn(Collections.singletonList(2L));
+        Mockito.when(repository.findAllById(Collections.singletonList(2L))).thenReturn(Collections.singletonList(existente));
+
+        List<OperacaoLancamento> operacoes = Arrays.asList(
+                new OperacaoLancamento("a", OperacaoLancamento.Tipo.CRIAR, null, novo, null),
+                new OperacaoLancamento("b", OperacaoLancamento.Tipo.ATUALIZAR_STATUS, 2L, null, StatusLancamento.EFETIVADO),
+                new OperacaoLancamento("c", OperacaoLancamento.Tipo.DELETAR, 3L, null, null));
+
+        // ação
+        List<ResultadoOperacao> resultados = service.executarLote(1L, operacoes);
+
+        // verificação
+        assertThat(resultados).extracting(ResultadoOperacao::getSituacao).containsExactly(201, 200, 400);
+        assertThat(resultados.get(0).getId()).isEqualTo(5L);
+        assertThat(existente.getStatus()).isEqualTo(StatusLancamento.EFETIVADO);
+        InOrder ordem = Mockito.inOrder(repository);
+        ordem.verify(repository).bloquearIds(Mockito.any(Specification.class));
+        ordem.verify(repository).findAllById(Collections.singletonList(2L));
+        Mockito.verify(repository).flush();
+        Mockito.verify(repository, Mockito.never()).delete(Mockito.any(Lancamento.class));
+        // O lançamento criado e o que saiu de pendente se anulam no grupo PENDENTE de 2019/1
+        Mockito.verify(saldoUsuarioService).registrarMovimento(Mockito.isNull(),
+                Mockito.argThat(atual -> atual.getStatus() == StatusLancamento.EFETIVADO && atual.getValor().equals(BigDecimal.valueOf(10))));
+        Mockito.verify(saldoUsuarioService, Mockito.times(1)).registrarMovimento(Mockito.any(), Mockito.any());
+        Mockito.verify(chaveIdempotenciaService).registrar(Mockito.eq(1L), Mockito.argThat(executadas -> executadas.size() == 3));
+    }
+
+    @Test
+    public void naoAtualizaNoLoteLancamentoSemStatus() {
+        // cenário
+        Lancamento existente = LancamentosRepositoryTest.criaLancamentoTeste();
+        existente.setId(2L);
+        existente.setUsuario(Usuario.builder().id(1L).build());
+        Mockito.when(repository.bloquearIds(Mockito.any(Specification.class))).thenReturn(Collections.singletonList(2L));
+        Mockito.when(repository.findAllById(Collections.singletonList(2L))).thenReturn(Collections.singletonList(existente));
+
+        Lancamento dados = LancamentosRepositoryTest.criaLancamentoTeste();
+        dados.setUsuario(existente.getUsuario());
+        dados.setValor(BigDecimal.valueOf(20));
+        dados.setStatus(null);
+
+        // ação
+        List<ResultadoOperacao> resultados = service.executarLote(1L,
+                Collections.singletonList(new OperacaoLancamento("a", OperacaoLancamento.Tipo.ATUALIZAR, 2L, dados, null)));
+
+        // verificação
+        assertThat(resultados).extracting(ResultadoOperacao::getSituacao).containsExactly(400);
+        assertThat(resultados.get(0).getMensagem()).isEqualTo("Informe um status válido para o lançamento.");
+        assertThat(existente.getStatus()).isEqualTo(StatusLancamento.PENDENTE);
+        assertThat(existente.getValor()).isEqualTo(BigDecimal.valueOf(10));
+        Mockito.verify(saldoUsuarioService, Mockito.never()).registrarMovimento(Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void naoExecutaDeNovoChaveJaRegistrada() {
+        // cenário
+        Lancamento novo = LancamentosRepositoryTest.criaLancamentoTeste();
+        novo.setUsuario(Usuario.builder().id(1L).build());
+        Mockito.when(chaveIdempotenciaService.obterResultados(Mockito.eq(1L), Mockito.anyCollection()))
+                .thenReturn(Collections.singletonMap("a", new ResultadoOperacao("a", 201, 5L, null, true)));
+
+        // ação
+        List<ResultadoOperacao> resultados = service.executarLote(1L,
+                Collections.singletonList(new OperacaoLancamento("a", OperacaoLancamento.Tipo.CRIAR, null, novo, null)));
+
+        // verificação
+        assertThat(resultados).hasSize(1);
+        assertThat(resultados.get(0).isRepetida()).isTrue();
+        assertThat(resultados.get(0).getId()).isEqualTo(5L);
+        Mockito.verify(repository, Mockito.never()).save(Mockito.any(Lancamento.class));
+        Mockito.verify(saldoUsuarioService, Mockito.never()).registrarMovimento(Mockito.any(), Mockito.any());
+        Mockito.verify(chaveIdempotenciaService).registrar(1L, Collections.emptyList());
+    }
+
     @Test
     public void deletaLancamento() {
         // cenário
@@ -125,7 +313,7 @@ public class LancamentoServiceTest {
         Lancamento lancamento = LancamentosRepositoryTest.criaLancamentoTeste();
         lancamento.setId(1L);
         List<Lancamento> lista = Arrays.asList(lancamento);
-        Mockito.when(repository.findAll(Mockito.any(Example.class))).thenReturn(lista);
+        Mockito.when(repository.findAll(Mockito.any(Specification.class), Mockito.any(Sort.class))).thenReturn(lista);
 
         // ação
         System.out.println("Lançamento = " + lancamento);
@@ -135,6 +323,61 @@ public class LancamentoServiceTest {
         assertThat(result).isNotEmpty().hasSize(1).contains(lancamento);
     }
 
+    @Test
+    public void buscaPaginaComProximoCursor() {
+        // cenário
+        List<Lancamento> lista = new ArrayList<>();
+        for (long id = 1; id <= 3; id++) {
+            Lancamento lancamento = LancamentosRepositoryTest.criaLancamentoTeste();
+            lancamento.setId(id);
+            lista.add(lancamento);
+        }
+        Mockito.when(repository.buscarApos(Mockito.any(), Mockito.isNull(), Mockito.eq(3))).thenReturn(lista);
+
+        // ação
+        Pagina<Lancamento> pagina = service.buscarPagina(new Lancamento(), null, 2);
+
+        // verificação
+        assertThat(pagina.getItens()).hasSize(2);
+        assertThat(pagina.getProximo()).isNotNull();
+        assertThat(pagina.getProximo().getId()).isEqualTo(2L);
+    }
+
+    @Test
+    public void buscaUltimaPagina() {
+        // cenário
+        Lancamento lancamento = LancamentosRepositoryTest.criaLancamentoTeste();
+        lancamento.setId(1L);
+        CursorLancamento cursor = new CursorLancamento(2019, 1, 0L);
+        Mockito.when(repository.buscarApos(Mockito.any(), Mockito.eq(cursor), Mockito.eq(3))).thenReturn(Arrays.asList(lancamento));
+
+        // ação
+        Pagina<Lancamento> pagina = service.buscarPagina(new Lancamento(), cursor, 2);
+
+        // verificação
+        assertThat(pagina.getItens()).hasSize(1);
+        assertThat(pagina.getProximo()).isNull();
+    }
+
+    @Test
+    public void exportaLancamentosDesanexandoCadaUm() {
+        // cenário
+        Lancamento primeiro = LancamentosRepositoryTest.criaLancamentoTeste();
+        primeiro.setId(1L);
+        Lancamento segundo = LancamentosRepositoryTest.criaLancamentoTeste();
+        segundo.setId(2L);
+        Mockito.when(repository.listarPorUsuario(1L)).thenReturn(Stream.of(primeiro, segundo));
+        List<Lancamento> exportados = new ArrayList<>();
+
+        // ação
+        service.exportar(1L, exportados::add);
+
+        // verificação
+        assertThat(exportados).containsExactly(primeiro, segundo);
+        Mockito.verify(repository).desanexar(primeiro);
+        Mockito.verify(repository).desanexar(segundo);
+    }
+
     @Test
     public void atualizaStatusLancamento() {
         // cenário
@@ -152,6 +395,93 @@ public class LancamentoServiceTest {
         Mockito.verify(service).atualizar(lancamento); // Verifica se chamou o método de atualizar mas (*) não faça nada em relação a isso
     }
 
+    @Test
+    public void atualizaStatusComUmUnicoUpdate() {
+        // cenário
+        LancamentoContabil anterior = new LancamentoContabil(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.TEN);
+        Mockito.when(repository.obterSituacaoContabil(1L)).thenReturn(Optional.of(anterior));
+        Lancamento atualizado = LancamentosRepositoryTest.criaLancamentoTeste();
+        atualizado.setStatus(StatusLancamento.EFETIVADO);
+        Mockito.when(repository.findById(1L)).thenReturn(Optional.of(atualizado));
+
+        // ação
+        Lancamento lancamento = service.atualizarStatus(1L, 1L, StatusLancamento.EFETIVADO);
+
+        // verificação
+        assertThat(lancamento).isSameAs(atualizado);
+        InOrder ordem = Mockito.inOrder(repository);
+        ordem.verify(repository).atualizarStatus(1L, 1L, StatusLancamento.EFETIVADO);
+        ordem.verify(repository).findById(1L);
+        Mockito.verify(repository, Mockito.never()).save(Mockito.any(Lancamento.class));
+        Mockito.verify(saldoUsuarioService).registrarMovimento(Mockito.eq(anterior),
+                Mockito.argThat(atual -> atual.getStatus() == StatusLancamento.EFETIVADO));
+    }
+
+    @Test
+    public void atualizaStatusEmLoteAjustandoSaldoPorGrupo() {
+        // cenário
+        Lancamento lancamentoFiltro = new Lancamento();
+        lancamentoFiltro.setUsuario(Usuario.builder().id(1L).build());
+        lancamentoFiltro.setAno(2020);
+        lancamentoFiltro.setMes(6);
+        LancamentoContabil receitas = new LancamentoContabil(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.valueOf(300));
+        LancamentoContabil despesas = new LancamentoContabil(1L, 2020, 6, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, BigDecimal.valueOf(120));
+        Mockito.when(repository.bloquearIds(Mockito.any(Specification.class))).thenReturn(Arrays.asList(1L, 2L));
+        Mockito.when(repository.obterTotaisContabeis(Mockito.any(Specification.class))).thenReturn(Arrays.asList(receitas, despesas));
+        Mockito.when(repository.atualizarStatus(Mockito.any(Specification.class), Mockito.eq(StatusLancamento.EFETIVADO))).thenReturn(200);
+
+        // ação
+        int atualizados = service.atualizarStatusEmLote(lancamentoFiltro, null, StatusLancamento.EFETIVADO);
+
+        // verificação
+        assertThat(atualizados).isEqualTo(200);
+        Mockito.verify(saldoUsuarioService).registrarMovimento(Mockito.eq(receitas),
+                Mockito.argThat(atual -> atual.getStatus() == StatusLancamento.EFETIVADO && atual.getValor().equals(BigDecimal.valueOf(300))));
+        Mockito.verify(saldoUsuarioService).registrarMovimento(Mockito.eq(despesas),
+                Mockito.argThat(atual -> atual.getStatus() == StatusLancamento.EFETIVADO && atual.getValor().equals(BigDecimal.valueOf(120))));
+        Mockito.verify(repository, Mockito.never()).save(Mockito.any(Lancamento.class));
+        // Bloqueio antes da leitura dos totais e do UPDATE
+        InOrder ordem = Mockito.inOrder(repository);
+        ordem.verify(repository).bloquearIds(Mockito.any(Specification.class));
+        ordem.verify(repository).obterTotaisContabeis(Mockito.any(Specification.class));
+        ordem.verify(repository).atualizarStatus(Mockito.any(Specification.class), Mockito.eq(StatusLancamento.EFETIVADO));
+    }
+
+    @Test
+    public void naoAtualizaStatusEmLoteSemLancamentosNoFiltro() {
+        // cenário
+        Lancamento lancamentoFiltro = new Lancamento();
+        lancamentoFiltro.setUsuario(Usuario.builder().id(1L).build());
+        Mockito.when(repository.bloquearIds(Mockito.any(Specification.class))).thenReturn(Collections.emptyList());
+
+        // ação
+        int atualizados = service.atualizarStatusEmLote(lancamentoFiltro, Arrays.asList(1L), StatusLancamento.EFETIVADO);
+
+        // verificação
+        assertThat(atualizados).isZero();
+        Mockito.verify(repository, Mockito.never()).atualizarStatus(Mockito.any(Specification.class), Mockito.any());
+        Mockito.verifyNoInteractions(saldoUsuarioService);
+    }
+
+    @Test
+    public void naoAtualizaStatusEmLoteSemUsuario() {
+        // ação
+        Throwable exception = catchThrowable(() -> service.atualizarStatusEmLote(new Lancamento(), Arrays.asList(1L), StatusLancamento.EFETIVADO));
+
+        // verificação
+        assertThat(exception).isInstanceOf(NullPointerException.class);
+        Mockito.verify(repository, Mockito.never()).atualizarStatus(Mockito.any(Specification.class), Mockito.any());
+    }
+
+    @Test
+    public void obtemTotaisPorPeriodo() {
+        // ação
+        service.obterTotaisPorPeriodo(1L, 2015, 3, 2024, 11);
+
+        // verificação
+        Mockito.verify(resumoMensalService).obterTotaisPorPeriodo(1L, 2015, 3, 2024, 11);
+    }
+
     @Test
     public void obtemLancamentoPorId() {
         // cenário
@@ -179,9 +509,35 @@ public class LancamentoServiceTest {
         assertThat(lancamentoNaoEncontrado.isPresent()).isFalse();
     }
 
+    @Test
+    public void obtemSaldoPorUsuario() {
+        // cenário
+        Long idUsuario = 1L;
+        Mockito.when(saldoUsuarioService.obterSaldo(idUsuario)).thenReturn(new SaldoProjection() {
+            @Override
+            public BigDecimal getReceitas() {
+                return BigDecimal.valueOf(100);
+            }
+
+            @Override
+            public BigDecimal getDespesas() {
+                return BigDecimal.valueOf(30);
+            }
+        });
+
+        // ação
+        BigDecimal saldo = service.obterSaldoPorUsuario(idUsuario);
+
+        // verificação
+        assertThat(saldo).isEqualByComparingTo(BigDecimal.valueOf(70));
+        Mockito.verify(saldoUsuarioService, Mockito.times(1)).obterSaldo(idUsuario);
+    }
+
     @Test
     public void validaLancamento() {
         Lancamento lancamento = new Lancamento();
+        double falhasMes = falhasDeValidacao("mes");
+        double falhasTipo = falhasDeValidacao("tipo");
 
         Throwable erro = catchThrowable(() -> service.validar(lancamento));
         assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe uma Descrição válida.");
@@ -240,6 +596,14 @@ public class LancamentoServiceTest {
 
         erro = catchThrowable(() -> service.validar(lancamento));
         assertThat(erro).isInstanceOf(RegraNegocioException.class).hasMessage("Informe um tipo de Lançamento.");
+
+        // Cada falha contada pela regra violada
+        assertThat(falhasDeValidacao("mes") - falhasMes).isEqualTo(3);
+        assertThat(falhasDeValidacao("tipo") - falhasTipo).isEqualTo(1);
+    }
+
+    private double falhasDeValidacao(String regra) {
+        return meterRegistry.counter("financas.lancamento.validacao.falhas", "regra", regra).count();
     }
 
 }
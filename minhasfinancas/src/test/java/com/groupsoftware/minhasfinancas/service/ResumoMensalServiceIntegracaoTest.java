@@ -0,0 +1,88 @@
+package com.groupsoftware.minhasfinancas.service;
+
+import com.groupsoftware.minhasfinancas.model.entity.Lancamento;
+import com.groupsoftware.minhasfinancas.model.entity.Usuario;
+import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
+import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+import com.groupsoftware.minhasfinancas.model.projection.TotalPorPeriodoProjection;
+import com.groupsoftware.minhasfinancas.model.repository.UsuarioRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.*;
+
+// Escritas de lançamento no H2 do perfil de teste, com os resumos e o saldo mantidos pelas mesmas consultas do PostgreSQL
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class ResumoMensalServiceIntegracaoTest {
+
+    @Autowired
+    ResumoMensalService service;
+
+    @Autowired
+    LancamentoService lancamentoService;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Test
+    public void mantemOsResumosACadaEscritaDeLancamento() {
+        // cenário
+        Usuario usuario = usuarioRepository.save(Usuario.builder().nome("usuario").email("resumo@email.com").senha("senha").build());
+
+        // ação
+        Lancamento salario = lancamentoService.salvar(lancamento(usuario, 6, TipoLancamento.RECEITA, 100));
+        Lancamento aluguel = lancamentoService.salvar(lancamento(usuario, 6, TipoLancamento.DESPESA, 40));
+        Lancamento mercado = lancamentoService.salvar(lancamento(usuario, 7, TipoLancamento.DESPESA, 25));
+        lancamentoService.importar(Arrays.asList(lancamento(usuario, 7, TipoLancamento.RECEITA, 10), lancamento(usuario, 7, TipoLancamento.RECEITA, 5)));
+
+        // Cópias, como chegam do controller: o lançamento gerenciado só muda ao ser gravado
+        Lancamento aluguelReajustado = copia(aluguel);
+        aluguelReajustado.setValor(BigDecimal.valueOf(45));
+        lancamentoService.atualizar(aluguelReajustado);
+        lancamentoService.atualizarStatus(copia(salario), StatusLancamento.EFETIVADO);
+        lancamentoService.deletar(mercado);
+
+        // verificação
+        List<String> totais = totais(usuario);
+        assertThat(totais).containsExactly("6 DESPESA PENDENTE 45", "6 RECEITA EFETIVADO 100", "7 RECEITA PENDENTE 15");
+        assertThat(lancamentoService.obterSaldoDetalhadoPorUsuario(usuario.getId()).getReceitas()).isEqualByComparingTo(BigDecimal.valueOf(100));
+
+        // A reconstrução a partir dos lançamentos chega aos mesmos totais
+        service.reconstruir();
+        assertThat(totais(usuario)).isEqualTo(totais);
+    }
+
+    private List<String> totais(Usuario usuario) {
+        return service.obterTotaisPorPeriodo(usuario.getId(), 2020, 1, 2020, 12).stream()
+                .map(this::descrever)
+                .collect(Collectors.toList());
+    }
+
+    private String descrever(TotalPorPeriodoProjection total) {
+        return total.getMes() + " " + total.getTipo() + " " + total.getStatus() + " " + total.getTotal().stripTrailingZeros().toPlainString();
+    }
+
+    private Lancamento lancamento(Usuario usuario, int mes, TipoLancamento tipo, int valor) {
+        return Lancamento.builder().descricao("lançamento").ano(2020).mes(mes).valor(BigDecimal.valueOf(valor))
+                .tipo(tipo).usuario(usuario).build();
+    }
+
+    private Lancamento copia(Lancamento lancamento) {
+        return Lancamento.builder().id(lancamento.getId()).descricao(lancamento.getDescricao()).ano(lancamento.getAno())
+                .mes(lancamento.getMes()).valor(lancamento.getValor()).tipo(lancamento.getTipo())
+                .status(lancamento.getStatus()).usuario(lancamento.getUsuario()).build();
+    }
+}
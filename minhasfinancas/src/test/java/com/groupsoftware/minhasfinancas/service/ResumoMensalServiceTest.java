@@ -0,0 +1,136 @@
+package com.groupsoftware.minhasfinancas.service;
+
+import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
+import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+import com.groupsoftware.minhasfinancas.model.projection.LancamentoContabil;
+import com.groupsoftware.minhasfinancas.model.repository.ResumoMensalRepository;
+import com.groupsoftware.minhasfinancas.service.impl.ResumoMensalServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+
+import static org.assertj.core.api.Assertions.*;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class ResumoMensalServiceTest {
+
+    @SpyBean
+    ResumoMensalServiceImpl service;
+
+    @MockBean
+    ResumoMensalRepository repository;
+
+    @BeforeEach
+    public void setUp() {
+        // A linha do mês já existe, salvo nos testes de criação
+        Mockito.when(repository.somarAoTotal(Mockito.anyLong(), Mockito.anyInt(), Mockito.anyInt(), Mockito.any(), Mockito.any(), Mockito.any()))
+                .thenReturn(1);
+    }
+
+    @Test
+    public void somaLancamentoPendenteAoMes() {
+        // cenário
+        LancamentoContabil atual = new LancamentoContabil(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.TEN);
+
+        // ação
+        service.registrarMovimento(null, atual);
+
+        // verificação
+        Mockito.verify(repository).somarAoTotal(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.TEN);
+    }
+
+    @Test
+    public void aplicaSomenteADiferencaDeValorNoMesmoMes() {
+        // cenário
+        LancamentoContabil anterior = new LancamentoContabil(1L, 2020, 6, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, BigDecimal.valueOf(10));
+        LancamentoContabil atual = new LancamentoContabil(1L, 2020, 6, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, BigDecimal.valueOf(25));
+
+        // ação
+        service.registrarMovimento(anterior, atual);
+
+        // verificação
+        Mockito.verify(repository, Mockito.times(1))
+                .somarAoTotal(Mockito.anyLong(), Mockito.anyInt(), Mockito.anyInt(), Mockito.any(), Mockito.any(), Mockito.any());
+        Mockito.verify(repository).somarAoTotal(1L, 2020, 6, TipoLancamento.DESPESA, StatusLancamento.PENDENTE, BigDecimal.valueOf(15));
+    }
+
+    @Test
+    public void moveValorEntreMesesEStatus() {
+        // cenário
+        LancamentoContabil anterior = new LancamentoContabil(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.TEN);
+        LancamentoContabil atual = new LancamentoContabil(1L, 2020, 7, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, BigDecimal.TEN);
+
+        // ação
+        service.registrarMovimento(anterior, atual);
+
+        // verificação
+        Mockito.verify(repository).somarAoTotal(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.TEN.negate());
+        Mockito.verify(repository).somarAoTotal(1L, 2020, 7, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, BigDecimal.TEN);
+    }
+
+    @Test
+    public void estornaLancamentoExcluido() {
+        // cenário
+        LancamentoContabil anterior = new LancamentoContabil(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.CANCELADO, BigDecimal.TEN);
+
+        // ação
+        service.registrarMovimento(anterior, null);
+
+        // verificação
+        Mockito.verify(repository).somarAoTotal(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.CANCELADO, BigDecimal.TEN.negate());
+    }
+
+    @Test
+    public void criaALinhaNoPrimeiroLancamentoDoMes() {
+        // cenário
+        LancamentoContabil atual = new LancamentoContabil(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.TEN);
+        Mockito.when(repository.somarAoTotal(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.TEN)).thenReturn(0);
+        Mockito.when(repository.criarResumo(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.TEN)).thenReturn(true);
+
+        // ação
+        service.registrarMovimento(null, atual);
+
+        // verificação
+        Mockito.verify(repository, Mockito.times(1)).somarAoTotal(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.TEN);
+        Mockito.verify(repository).criarResumo(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.TEN);
+    }
+
+    @Test
+    public void somaNaLinhaCriadaAoMesmoTempoPorOutraTransacao() {
+        // cenário
+        LancamentoContabil atual = new LancamentoContabil(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.TEN);
+        Mockito.when(repository.somarAoTotal(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.TEN)).thenReturn(0, 1);
+        Mockito.when(repository.criarResumo(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.TEN)).thenReturn(false);
+
+        // ação
+        service.registrarMovimento(null, atual);
+
+        // verificação
+        Mockito.verify(repository, Mockito.times(2)).somarAoTotal(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.TEN);
+    }
+
+    @Test
+    public void reconstroiAPartirDosLancamentos() {
+        // cenário
+        Mockito.when(repository.reconstruir()).thenReturn(3);
+
+        // ação
+        int linhas = service.reconstruir();
+
+        // verificação
+        assertThat(linhas).isEqualTo(3);
+        InOrder ordem = Mockito.inOrder(repository);
+        ordem.verify(repository).bloquearTodos();
+        ordem.verify(repository).removerTodos();
+        ordem.verify(repository).reconstruir();
+    }
+}
@@ -0,0 +1,85 @@
+package com.groupsoftware.minhasfinancas.service;
+
+import com.groupsoftware.minhasfinancas.model.entity.Lancamento;
+import com.groupsoftware.minhasfinancas.model.entity.Usuario;
+import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
+import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+import com.groupsoftware.minhasfinancas.model.projection.LancamentoContabil;
+import com.groupsoftware.minhasfinancas.model.projection.SaldoProjection;
+import com.groupsoftware.minhasfinancas.model.repository.LancamentoRepository;
+import com.groupsoftware.minhasfinancas.model.repository.UsuarioRepository;
+import com.groupsoftware.minhasfinancas.service.dto.DivergenciaSaldo;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+// Grava no H2 do perfil de teste, pelas mesmas consultas usadas no PostgreSQL; cada teste é desfeito ao final
+@ExtendWith(SpringExtension.class)
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class SaldoUsuarioServiceIntegracaoTest {
+
+    @Autowired
+    SaldoUsuarioService service;
+
+    @Autowired
+    UsuarioRepository usuarioRepository;
+
+    @Autowired
+    LancamentoRepository lancamentoRepository;
+
+    @Test
+    public void criaESomaOsTotaisDoUsuario() {
+        // cenário
+        Usuario usuario = criarUsuario("saldo@email.com");
+
+        // ação
+        service.registrarMovimento(null, efetivado(usuario, TipoLancamento.RECEITA, BigDecimal.valueOf(100)));
+        service.registrarMovimento(null, efetivado(usuario, TipoLancamento.RECEITA, BigDecimal.valueOf(50)));
+        service.registrarMovimento(null, efetivado(usuario, TipoLancamento.DESPESA, BigDecimal.valueOf(30)));
+        service.registrarMovimento(efetivado(usuario, TipoLancamento.RECEITA, BigDecimal.valueOf(50)), null);
+
+        // verificação
+        SaldoProjection saldo = service.obterSaldo(usuario.getId());
+        assertThat(saldo.getReceitas()).isEqualByComparingTo(BigDecimal.valueOf(100));
+        assertThat(saldo.getDespesas()).isEqualByComparingTo(BigDecimal.valueOf(30));
+    }
+
+    @Test
+    public void reconciliacaoCriaECorrigeTotais() {
+        // cenário
+        Usuario usuario = criarUsuario("reconciliacao@email.com");
+        lancamentoRepository.save(Lancamento.builder().descricao("salário").ano(2020).mes(6).valor(BigDecimal.valueOf(80))
+                .tipo(TipoLancamento.RECEITA).status(StatusLancamento.EFETIVADO).usuario(usuario).build());
+        // Total de despesas sem nenhum lançamento que o justifique
+        service.registrarMovimento(null, efetivado(usuario, TipoLancamento.DESPESA, BigDecimal.valueOf(30)));
+
+        // ação
+        List<DivergenciaSaldo> divergencias = service.reconciliar();
+
+        // verificação
+        assertThat(divergencias).hasSize(2);
+        SaldoProjection saldo = service.obterSaldo(usuario.getId());
+        assertThat(saldo.getReceitas()).isEqualByComparingTo(BigDecimal.valueOf(80));
+        assertThat(saldo.getDespesas()).isEqualByComparingTo(BigDecimal.ZERO);
+        assertThat(service.reconciliar()).isEmpty();
+    }
+
+    private Usuario criarUsuario(String email) {
+        return usuarioRepository.save(Usuario.builder().nome("usuario").email(email).senha("senha").build());
+    }
+
+    private LancamentoContabil efetivado(Usuario usuario, TipoLancamento tipo, BigDecimal valor) {
+        return new LancamentoContabil(usuario.getId(), 2020, 6, tipo, StatusLancamento.EFETIVADO, valor);
+    }
+}
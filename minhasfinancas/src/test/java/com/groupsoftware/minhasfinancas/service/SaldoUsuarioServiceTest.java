@@ -0,0 +1,217 @@
+package com.groupsoftware.minhasfinancas.service;
+
+import com.groupsoftware.minhasfinancas.model.enums.StatusLancamento;
+import com.groupsoftware.minhasfinancas.model.enums.TipoLancamento;
+import com.groupsoftware.minhasfinancas.model.projection.LancamentoContabil;
+import com.groupsoftware.minhasfinancas.model.projection.TotalPorTipoProjection;
+import com.groupsoftware.minhasfinancas.model.repository.LancamentoRepository;
+import com.groupsoftware.minhasfinancas.model.repository.SaldoUsuarioRepository;
+import com.groupsoftware.minhasfinancas.service.dto.DivergenciaSaldo;
+import com.groupsoftware.minhasfinancas.service.impl.SaldoUsuarioServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class SaldoUsuarioServiceTest {
+
+    @SpyBean
+    SaldoUsuarioServiceImpl service;
+
+    @MockBean
+    SaldoUsuarioRepository repository;
+
+    @MockBean
+    LancamentoRepository lancamentoRepository;
+
+    @Test
+    public void somaLancamentoEfetivado() {
+        // cenário
+        Mockito.when(repository.somarAoTotal(1L, TipoLancamento.RECEITA, BigDecimal.TEN)).thenReturn(1);
+        LancamentoContabil anterior = new LancamentoContabil(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.TEN);
+        LancamentoContabil atual = new LancamentoContabil(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, BigDecimal.TEN);
+
+        // ação
+        service.registrarMovimento(anterior, atual);
+
+        // verificação
+        Mockito.verify(repository).somarAoTotal(1L, TipoLancamento.RECEITA, BigDecimal.TEN);
+        Mockito.verify(repository, Mockito.never()).criarTotal(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void criaTotalNoPrimeiroLancamentoEfetivadoDoTipo() {
+        // cenário
+        LancamentoContabil atual = new LancamentoContabil(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, BigDecimal.TEN);
+        Mockito.when(repository.somarAoTotal(1L, TipoLancamento.RECEITA, BigDecimal.TEN)).thenReturn(0);
+        Mockito.when(repository.criarTotal(1L, TipoLancamento.RECEITA, BigDecimal.TEN)).thenReturn(true);
+
+        // ação
+        service.registrarMovimento(null, atual);
+
+        // verificação
+        Mockito.verify(repository, Mockito.times(1)).somarAoTotal(1L, TipoLancamento.RECEITA, BigDecimal.TEN);
+        Mockito.verify(repository).criarTotal(1L, TipoLancamento.RECEITA, BigDecimal.TEN);
+    }
+
+    @Test
+    public void somaNaLinhaCriadaAoMesmoTempoPorOutraTransacao() {
+        // cenário
+        LancamentoContabil atual = new LancamentoContabil(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, BigDecimal.TEN);
+        Mockito.when(repository.somarAoTotal(1L, TipoLancamento.RECEITA, BigDecimal.TEN)).thenReturn(0, 1);
+        Mockito.when(repository.criarTotal(1L, TipoLancamento.RECEITA, BigDecimal.TEN)).thenReturn(false);
+
+        // ação
+        service.registrarMovimento(null, atual);
+
+        // verificação
+        InOrder ordem = Mockito.inOrder(repository);
+        ordem.verify(repository).somarAoTotal(1L, TipoLancamento.RECEITA, BigDecimal.TEN);
+        ordem.verify(repository).criarTotal(1L, TipoLancamento.RECEITA, BigDecimal.TEN);
+        ordem.verify(repository).somarAoTotal(1L, TipoLancamento.RECEITA, BigDecimal.TEN);
+    }
+
+    @Test
+    public void aplicaSomenteADiferencaDeValor() {
+        // cenário
+        LancamentoContabil anterior = new LancamentoContabil(1L, 2020, 6, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(10));
+        LancamentoContabil atual = new LancamentoContabil(1L, 2020, 6, TipoLancamento.DESPESA, StatusLancamento.EFETIVADO, BigDecimal.valueOf(25));
+        Mockito.when(repository.somarAoTotal(1L, TipoLancamento.DESPESA, BigDecimal.valueOf(15))).thenReturn(1);
+
+        // ação
+        service.registrarMovimento(anterior, atual);
+
+        // verificação
+        Mockito.verify(repository, Mockito.times(1)).somarAoTotal(1L, TipoLancamento.DESPESA, BigDecimal.valueOf(15));
+    }
+
+    @Test
+    public void estornaLancamentoCanceladoOuExcluido() {
+        // cenário
+        LancamentoContabil anterior = new LancamentoContabil(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.EFETIVADO, BigDecimal.TEN);
+        Mockito.when(repository.somarAoTotal(1L, TipoLancamento.RECEITA, BigDecimal.TEN.negate())).thenReturn(1);
+
+        // ação
+        service.registrarMovimento(anterior, null);
+
+        // verificação
+        Mockito.verify(repository).somarAoTotal(1L, TipoLancamento.RECEITA, BigDecimal.TEN.negate());
+    }
+
+    @Test
+    public void ignoraLancamentoPendente() {
+        // cenário
+        LancamentoContabil atual = new LancamentoContabil(1L, 2020, 6, TipoLancamento.RECEITA, StatusLancamento.PENDENTE, BigDecimal.TEN);
+
+        // ação
+        service.registrarMovimento(null, atual);
+
+        // verificação
+        Mockito.verifyNoInteractions(repository);
+    }
+
+    @Test
+    public void reconciliaTotaisDivergentes() {
+        // cenário
+        Mockito.when(repository.bloquearTotais()).thenReturn(Arrays.asList(
+                total(1L, TipoLancamento.RECEITA, BigDecimal.valueOf(100)),
+                total(1L, TipoLancamento.DESPESA, BigDecimal.valueOf(40))));
+        Mockito.when(lancamentoRepository.obterTotaisPorUsuarioETipo(StatusLancamento.EFETIVADO)).thenReturn(Arrays.asList(
+                total(1L, TipoLancamento.RECEITA, BigDecimal.valueOf(100)),
+                total(1L, TipoLancamento.DESPESA, BigDecimal.valueOf(50))));
+
+        // ação
+        List<DivergenciaSaldo> divergencias = service.reconciliar();
+
+        // verificação
+        assertThat(divergencias).hasSize(1);
+        assertThat(divergencias.get(0).getTipo()).isEqualTo(TipoLancamento.DESPESA);
+        assertThat(divergencias.get(0).getApurado()).isEqualByComparingTo(BigDecimal.valueOf(50));
+        // A correção entra como diferença, sobre a mesma linha que os lançamentos concorrentes atualizam
+        InOrder ordem = Mockito.inOrder(repository, lancamentoRepository);
+        ordem.verify(repository).bloquearTotais();
+        ordem.verify(lancamentoRepository).obterTotaisPorUsuarioETipo(StatusLancamento.EFETIVADO);
+        ordem.verify(repository).somarAoTotal(1L, TipoLancamento.DESPESA, BigDecimal.valueOf(10));
+        Mockito.verify(repository, Mockito.never()).criarTotal(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void reconciliacaoCriaTotalDoUsuarioSemSaldo() {
+        // cenário
+        Mockito.when(repository.bloquearTotais()).thenReturn(Collections.emptyList());
+        Mockito.when(lancamentoRepository.obterTotaisPorUsuarioETipo(StatusLancamento.EFETIVADO)).thenReturn(Collections.singletonList(
+                total(1L, TipoLancamento.RECEITA, BigDecimal.valueOf(100))));
+        Mockito.when(repository.criarTotal(1L, TipoLancamento.RECEITA, BigDecimal.valueOf(100))).thenReturn(true);
+
+        // ação
+        List<DivergenciaSaldo> divergencias = service.reconciliar();
+
+        // verificação
+        assertThat(divergencias).hasSize(1);
+        Mockito.verify(repository).criarTotal(1L, TipoLancamento.RECEITA, BigDecimal.valueOf(100));
+        Mockito.verify(repository, Mockito.never()).somarAoTotal(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void reconciliacaoIgnoraTotalCriadoDepoisDoBloqueio() {
+        // cenário
+        Mockito.when(repository.bloquearTotais()).thenReturn(Collections.emptyList());
+        Mockito.when(lancamentoRepository.obterTotaisPorUsuarioETipo(StatusLancamento.EFETIVADO)).thenReturn(Collections.singletonList(
+                total(1L, TipoLancamento.RECEITA, BigDecimal.valueOf(100))));
+        Mockito.when(repository.criarTotal(1L, TipoLancamento.RECEITA, BigDecimal.valueOf(100))).thenReturn(false);
+
+        // ação
+        List<DivergenciaSaldo> divergencias = service.reconciliar();
+
+        // verificação
+        assertThat(divergencias).isEmpty();
+        Mockito.verify(repository, Mockito.never()).somarAoTotal(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    @Test
+    public void reconciliacaoSemDivergencias() {
+        // cenário
+        Mockito.when(repository.bloquearTotais()).thenReturn(Collections.emptyList());
+        Mockito.when(lancamentoRepository.obterTotaisPorUsuarioETipo(StatusLancamento.EFETIVADO)).thenReturn(Collections.emptyList());
+
+        // ação
+        List<DivergenciaSaldo> divergencias = service.reconciliar();
+
+        // verificação
+        assertThat(divergencias).isEmpty();
+        Mockito.verify(repository, Mockito.never()).somarAoTotal(Mockito.any(), Mockito.any(), Mockito.any());
+        Mockito.verify(repository, Mockito.never()).criarTotal(Mockito.any(), Mockito.any(), Mockito.any());
+    }
+
+    private TotalPorTipoProjection total(Long idUsuario, TipoLancamento tipo, BigDecimal valor) {
+        return new TotalPorTipoProjection() {
+            @Override
+            public Long getIdUsuario() {
+                return idUsuario;
+            }
+
+            @Override
+            public TipoLancamento getTipo() {
+                return tipo;
+            }
+
+            @Override
+            public BigDecimal getTotal() {
+                return valor;
+            }
+        };
+    }
+}
@@ -0,0 +1,79 @@
+package com.groupsoftware.minhasfinancas.service;
+
+import com.groupsoftware.minhasfinancas.model.entity.Usuario;
+import com.groupsoftware.minhasfinancas.model.repository.UsuarioRepository;
+import com.groupsoftware.minhasfinancas.service.dto.UsuarioAutenticado;
+import com.groupsoftware.minhasfinancas.service.impl.SecurityUserDetailsService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+public class SecurityUserDetailsServiceTest {
+
+    UsuarioRepository repository;
+    MeterRegistry registry;
+    SecurityUserDetailsService service;
+
+    @BeforeEach
+    public void setUp() {
+        repository = Mockito.mock(UsuarioRepository.class);
+        registry = new SimpleMeterRegistry();
+        service = new SecurityUserDetailsService(repository, registry, 100, Duration.ofMinutes(5));
+    }
+
+    @Test
+    public void consultaOBancoUmaUnicaVezPorUsuario() {
+        // cenário
+        Usuario usuario = Usuario.builder().id(1L).email("usuario@email.com").senha("senha").build();
+        Mockito.when(repository.findByEmail("usuario@email.com")).thenReturn(Optional.of(usuario));
+
+        // ação
+        UsuarioAutenticado primeiro = service.obterUsuarioAutenticado("usuario@email.com");
+        UsuarioAutenticado segundo = service.obterUsuarioAutenticado("usuario@email.com");
+
+        // verificação
+        assertThat(segundo).isSameAs(primeiro);
+        assertThat(primeiro.getId()).isEqualTo(1L);
+        assertThat(primeiro.getPassword()).isEmpty();
+        Mockito.verify(repository, Mockito.times(1)).findByEmail("usuario@email.com");
+        assertThat(registry.get("cache.gets").tag("cache", "usuariosAutenticados").tag("result", "hit").functionCounter().count()).isEqualTo(1);
+    }
+
+    @Test
+    public void recarregaUsuarioInvalidado() {
+        // cenário
+        Usuario usuario = Usuario.builder().id(1L).email("usuario@email.com").build();
+        Mockito.when(repository.findByEmail("usuario@email.com")).thenReturn(Optional.of(usuario));
+        service.obterUsuarioAutenticado("usuario@email.com");
+
+        // ação
+        service.invalidar("usuario@email.com");
+        service.obterUsuarioAutenticado("usuario@email.com");
+
+        // verificação
+        Mockito.verify(repository, Mockito.times(2)).findByEmail("usuario@email.com");
+    }
+
+    @Test
+    public void naoGuardaEmailInexistente() {
+        // cenário
+        Mockito.when(repository.findByEmail("inexistente@email.com")).thenReturn(Optional.empty());
+
+        // ação
+        Throwable exception = catchThrowable(() -> service.obterUsuarioAutenticado("inexistente@email.com"));
+        catchThrowable(() -> service.obterUsuarioAutenticado("inexistente@email.com"));
+
+        // verificação
+        assertThat(exception).isInstanceOf(UsernameNotFoundException.class).hasMessage("Email não cadastrado.");
+        Mockito.verify(repository, Mockito.times(2)).findByEmail("inexistente@email.com");
+    }
+}
@@ -1,20 +1,31 @@
 package com.groupsoftware.minhasfinancas.service;
 
+import com.groupsoftware.minhasfinancas.config.ExecutorSenhas;
 import com.groupsoftware.minhasfinancas.exception.AutenticacaoException;
 import com.groupsoftware.minhasfinancas.exception.RegraNegocioException;
 import com.groupsoftware.minhasfinancas.model.entity.Usuario;
 import com.groupsoftware.minhasfinancas.model.repository.UsuarioRepository;
+import com.groupsoftware.minhasfinancas.service.impl.FiltroEmailsCadastrados;
+import com.groupsoftware.minhasfinancas.service.impl.SecurityUserDetailsService;
 import com.groupsoftware.minhasfinancas.service.impl.UsuarioServiceImpl;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.context.junit4.SpringRunner;
 
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.anyString;
@@ -26,6 +37,24 @@ public class UsuarioServiceTest {
     UsuarioServiceImpl service;
     @MockBean // Simula uma injeção de dependência
     UsuarioRepository repository;
+    @MockBean
+    SecurityUserDetailsService userDetailsService;
+    @MockBean
+    ExecutorSenhas executorSenhas;
+    @MockBean
+    FiltroEmailsCadastrados filtroEmails;
+    @MockBean
+    PasswordEncoder encoder;
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @TestConfiguration
+    static class Metricas {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
 
     @Test
     public void testaSalvarUsuario() {
@@ -55,9 +84,10 @@ public class UsuarioServiceTest {
         Mockito.doThrow(RegraNegocioException.class).when(service).validarEmail(email);
 
         // execução
-        service.salvarUsuario(usuario);
+        Throwable exception = Assertions.catchThrowable(() -> service.salvarUsuario(usuario));
 
         // verificação
+        Assertions.assertThat(exception).isInstanceOf(RegraNegocioException.class);
         // É esperado que o repository, na execução da ação, nunca tenha chamado o método de salvar usuário
         Mockito.verify(repository, Mockito.never()).save(usuario);
     }
@@ -70,6 +100,7 @@ public class UsuarioServiceTest {
 
         Usuario usuario = Usuario.builder().email(email).senha(senha).id(1L).build();
         Mockito.when(repository.findByEmail(email)).thenReturn(Optional.of(usuario));
+        Mockito.when(encoder.matches(senha, senha)).thenReturn(true);
 
         // execução
         Usuario result = service.autenticar(email, senha);
@@ -116,6 +147,19 @@ public class UsuarioServiceTest {
         service.validarEmail("email@email.com");
     }
 
+    @Test
+    public void validaEmailCertamenteNovoSemConsultarOBanco() {
+        // cenário
+        Mockito.when(filtroEmails.certamenteNaoCadastrado("email@email.com")).thenReturn(true);
+
+        // execução
+        service.validarEmail("email@email.com");
+
+        // verificação
+        Mockito.verify(repository, Mockito.never()).existsByEmail(anyString());
+        Assertions.assertThat(meterRegistry.counter("financas.usuario.email.consultas.evitadas").count()).isEqualTo(1);
+    }
+
     @Test
     public void validaEmailException() {
         // cenário
@@ -124,6 +168,22 @@ public class UsuarioServiceTest {
         Mockito.when(repository.existsByEmail(anyString())).thenReturn(true);
 
         // execução
-        service.validarEmail("email@email.com");
+        Throwable exception = Assertions.catchThrowable(() -> service.validarEmail("email@email.com"));
+
+        // verificação
+        Assertions.assertThat(exception).isInstanceOf(RegraNegocioException.class).hasMessage("Já existe um usuário cadastrado com este email.");
+    }
+
+    @Test
+    public void normalizaEmailsCadastradosERetornaConflitos() {
+        // cenário
+        Mockito.when(repository.listarEmailsEmConflito()).thenReturn(Collections.singletonList("dup@email.com"));
+
+        // execução
+        List<String> conflitos = service.normalizarEmailsCadastrados();
+
+        // verificação
+        Mockito.verify(repository).normalizarEmails();
+        Assertions.assertThat(conflitos).containsExactly("dup@email.com");
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,88 @@
+package com.groupsoftware.minhasfinancas.service;
+
+import com.groupsoftware.minhasfinancas.config.MonitorAtrasoReplica;
+import com.groupsoftware.minhasfinancas.service.impl.RegistroVersoesMemoria;
+import com.groupsoftware.minhasfinancas.service.impl.VersaoDadosUsuarioServiceImpl;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.*;
+
+public class VersaoDadosUsuarioServiceTest {
+
+    VersaoDadosUsuarioService service = new VersaoDadosUsuarioServiceImpl(new RegistroVersoesMemoria(), Optional.empty(), true);
+
+    @Test
+    public void mudaAVersaoSomenteDoUsuarioAlterado() {
+        // cenário
+        Optional<String> versaoUsuario = service.obterVersao(1L);
+        Optional<String> versaoOutroUsuario = service.obterVersao(2L);
+
+        // ação
+        service.registrarAlteracao(1L);
+
+        // verificação
+        assertThat(service.obterVersao(1L)).isPresent().isNotEqualTo(versaoUsuario);
+        assertThat(service.obterVersao(2L)).isEqualTo(versaoOutroUsuario);
+    }
+
+    @Test
+    public void mudaAVersaoEmAlteracoesNoMesmoMilissegundo() {
+        // cenário
+        service.registrarAlteracao(1L);
+        Optional<String> versao = service.obterVersao(1L);
+
+        // ação
+        service.registrarAlteracao(1L);
+
+        // verificação
+        assertThat(service.obterVersao(1L)).isNotEqualTo(versao);
+    }
+
+    @Test
+    public void mudaAVersaoSomenteAposOCommit() {
+        // cenário
+        Optional<String> versao = service.obterVersao(1L);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // ação
+            service.registrarAlteracao(1L);
+
+            // verificação
+            assertThat(service.obterVersao(1L)).isEqualTo(versao);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertThat(service.obterVersao(1L)).isNotEqualTo(versao);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void naoInformaVersaoEnquantoAEscritaPodeNaoTerChegadoAReplica() {
+        // cenário
+        MonitorAtrasoReplica monitor = Mockito.mock(MonitorAtrasoReplica.class);
+        Mockito.when(monitor.getAtrasoMaximo()).thenReturn(Duration.ofMinutes(1));
+        VersaoDadosUsuarioService comReplica = new VersaoDadosUsuarioServiceImpl(new RegistroVersoesMemoria(), Optional.of(monitor), true);
+
+        // ação
+        comReplica.registrarAlteracao(1L);
+
+        // verificação
+        assertThat(comReplica.obterVersao(1L)).isEmpty();
+        assertThat(comReplica.obterVersao(2L)).isPresent();
+    }
+
+    @Test
+    public void naoInformaVersaoQuandoDesabilitado() {
+        // cenário
+        VersaoDadosUsuarioService desabilitado = new VersaoDadosUsuarioServiceImpl(new RegistroVersoesMemoria(), Optional.empty(), false);
+
+        // ação e verificação
+        assertThat(desabilitado.obterVersao(1L)).isEmpty();
+    }
+}